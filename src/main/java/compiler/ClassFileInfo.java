@@ -0,0 +1,293 @@
+package compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Minimal reader for the parts of a class file that describe its API and the API it references:
+ * the class hierarchy, the declared fields and methods and the symbolic references of the constant pool.
+ */
+public class ClassFileInfo {
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private final String m_className;
+    private final String m_superClassName;
+    private final int m_accessFlags;
+    private String m_signature;
+    private final List<String> m_interfaceNames = new ArrayList<>();
+    private final List<Member> m_fields = new ArrayList<>();
+    private final List<Member> m_methods = new ArrayList<>();
+    private final Set<String> m_referencedClasses = new HashSet<>();
+    private final Set<MemberReference> m_referencedMembers = new HashSet<>();
+
+    /**
+     * A field or method declared by the class. Names of classes use the binary name (with dots).
+     */
+    public static class Member {
+        public final int accessFlags;
+        public final String name;
+        public final String descriptor;
+        // the value of a compile time constant, null otherwise
+        public final String constantValue;
+        // the generic signature, null if the member is not generic
+        public final String signature;
+        // the checked exceptions declared by a method
+        public final List<String> exceptions;
+
+        Member(int accessFlags, String name, String descriptor, String constantValue, String signature, List<String> exceptions) {
+            this.accessFlags = accessFlags;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.constantValue = constantValue;
+            this.signature = signature;
+            this.exceptions = exceptions;
+        }
+
+        public String getSignature() {
+            return name + descriptor;
+        }
+    }
+
+    /**
+     * A symbolic reference to a field or method of another class.
+     */
+    public static class MemberReference {
+        public final String owner;
+        public final String name;
+        public final String descriptor;
+        public final boolean isField;
+
+        MemberReference(String owner, String name, String descriptor, boolean isField) {
+            this.owner = owner;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.isField = isField;
+        }
+
+        public String getSignature() {
+            return name + descriptor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MemberReference)) {
+                return false;
+            }
+            MemberReference that = (MemberReference) o;
+            return isField == that.isField && owner.equals(that.owner) && name.equals(that.name) && descriptor.equals(that.descriptor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(owner, name, descriptor, isField);
+        }
+
+        @Override
+        public String toString() {
+            return owner + "." + name + descriptor;
+        }
+    }
+
+    public ClassFileInfo(byte[] byteCode) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(byteCode));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Invalid class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        int poolSize = in.readUnsignedShort();
+        int[] tags = new int[poolSize];
+        Object[] values = new Object[poolSize];
+        for (int i = 1; i < poolSize; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    values[i] = in.readUTF();
+                    break;
+                case CONSTANT_INTEGER:
+                    values[i] = in.readInt();
+                    break;
+                case CONSTANT_FLOAT:
+                    values[i] = in.readFloat();
+                    break;
+                case CONSTANT_LONG:
+                    values[i] = in.readLong();
+                    i++;
+                    break;
+                case CONSTANT_DOUBLE:
+                    values[i] = in.readDouble();
+                    i++;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    values[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_FIELD_REF:
+                case CONSTANT_METHOD_REF:
+                case CONSTANT_INTERFACE_METHOD_REF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    values[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    in.readUnsignedByte();
+                    values[i] = in.readUnsignedShort();
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        for (int i = 1; i < poolSize; i++) {
+            if (tags[i] == CONSTANT_CLASS) {
+                String name = className(values, (int) values[i]);
+                if (name != null) {
+                    m_referencedClasses.add(name);
+                }
+            } else if (tags[i] == CONSTANT_FIELD_REF || tags[i] == CONSTANT_METHOD_REF || tags[i] == CONSTANT_INTERFACE_METHOD_REF) {
+                int[] ref = (int[]) values[i];
+                String owner = className(values, (int) values[ref[0]]);
+                int[] nameAndType = (int[]) values[ref[1]];
+                if (owner != null) {
+                    m_referencedMembers.add(new MemberReference(owner, (String) values[nameAndType[0]], (String) values[nameAndType[1]], tags[i] == CONSTANT_FIELD_REF));
+                }
+            }
+        }
+
+        m_accessFlags = in.readUnsignedShort();
+        m_className = className(values, (int) values[in.readUnsignedShort()]);
+        int superClassIndex = in.readUnsignedShort();
+        m_superClassName = superClassIndex == 0 ? null : className(values, (int) values[superClassIndex]);
+        int interfaceCount = in.readUnsignedShort();
+        for (int i = 0; i < interfaceCount; i++) {
+            m_interfaceNames.add(className(values, (int) values[in.readUnsignedShort()]));
+        }
+        readMembers(in, values, tags, m_fields);
+        readMembers(in, values, tags, m_methods);
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = (String) values[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("Signature".equals(attributeName)) {
+                m_signature = (String) values[in.readUnsignedShort()];
+            } else {
+                in.skipBytes(length);
+            }
+        }
+    }
+
+    private static void readMembers(DataInputStream in, Object[] values, int[] tags, List<Member> members) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            int accessFlags = in.readUnsignedShort();
+            String name = (String) values[in.readUnsignedShort()];
+            String descriptor = (String) values[in.readUnsignedShort()];
+            String constantValue = null;
+            String signature = null;
+            List<String> exceptions = new ArrayList<>();
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String attributeName = (String) values[in.readUnsignedShort()];
+                int length = in.readInt();
+                if ("ConstantValue".equals(attributeName)) {
+                    int index = in.readUnsignedShort();
+                    Object value = tags[index] == CONSTANT_STRING ? values[(int) values[index]] : values[index];
+                    constantValue = String.valueOf(value);
+                } else if ("Signature".equals(attributeName)) {
+                    signature = (String) values[in.readUnsignedShort()];
+                } else if ("Exceptions".equals(attributeName)) {
+                    int exceptionCount = in.readUnsignedShort();
+                    for (int k = 0; k < exceptionCount; k++) {
+                        exceptions.add(className(values, (int) values[in.readUnsignedShort()]));
+                    }
+                } else {
+                    in.skipBytes(length);
+                }
+            }
+            members.add(new Member(accessFlags, name, descriptor, constantValue, signature, exceptions));
+        }
+    }
+
+    // returns the binary name of a class constant or null for array types
+    private static String className(Object[] values, int nameIndex) {
+        String internalName = (String) values[nameIndex];
+        if (internalName.startsWith("[")) {
+            return null;
+        }
+        return internalName.replace('/', '.');
+    }
+
+    public String getClassName() {
+        return m_className;
+    }
+
+    public String getSuperClassName() {
+        return m_superClassName;
+    }
+
+    public int getAccessFlags() {
+        return m_accessFlags;
+    }
+
+    // the generic signature of the class, null if the class is not generic
+    public String getSignature() {
+        return m_signature;
+    }
+
+    public List<String> getInterfaceNames() {
+        return m_interfaceNames;
+    }
+
+    public List<Member> getFields() {
+        return m_fields;
+    }
+
+    public List<Member> getMethods() {
+        return m_methods;
+    }
+
+    public Set<String> getReferencedClasses() {
+        return m_referencedClasses;
+    }
+
+    public Set<MemberReference> getReferencedMembers() {
+        return m_referencedMembers;
+    }
+
+    public boolean declares(MemberReference reference) {
+        for (Member member : reference.isField ? m_fields : m_methods) {
+            if (member.name.equals(reference.name) && member.descriptor.equals(reference.descriptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
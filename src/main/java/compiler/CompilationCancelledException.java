@@ -0,0 +1,29 @@
+package compiler;
+
+/**
+ * Thrown by a compiler if the compiling thread was interrupted.
+ * The compilers check for interruption while they compile, so a cancelled compilation stops early.
+ * A compilation that failed on an archive closed by an interrupt is cancelled as well, as its errors are not reliable.
+ */
+public class CompilationCancelledException extends RuntimeException {
+
+    public CompilationCancelledException() {
+        super("Compilation was cancelled");
+    }
+
+    // the compilation failed on an archive that was closed by an interrupt
+    public CompilationCancelledException(String message) {
+        super("Compilation was cancelled: " + message);
+    }
+
+    public CompilationCancelledException(Throwable cause) {
+        super("Compilation was cancelled", cause);
+    }
+
+    // throws, if the current thread was interrupted
+    public static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CompilationCancelledException();
+        }
+    }
+}
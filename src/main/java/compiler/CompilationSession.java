@@ -0,0 +1,84 @@
+package compiler;
+
+import org.mdkt.compiler.SourceCode;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Long-lived compilation context of a single worker thread.
+ * The javac instance and its standard file manager, which caches the opened JDK and classpath archives,
+ * are kept across compiler calls. Source objects of the previous call are reused if their code did not change,
+ * so each compilation only submits the changed sources.
+ * The name environment of the Eclipse compiler is kept as well, so the parsed library types stay warm.
+ * A session must not be shared between threads.
+ * An interrupted compilation can leave the archives of the standard file manager closed, so such a session has to be
+ * closed and replaced.
+ */
+public class CompilationSession implements Closeable {
+
+    private final JavaCompiler m_javac;
+    private final StandardJavaFileManager m_standardFileManager;
+    private final Map<String, SourceCode> m_sourceCodes = new HashMap<>();
+    private final Map<String, String> m_sourceContents = new HashMap<>();
+    private EclipseNameEnvironment m_nameEnvironment;
+    private int m_numberOfCompilations = 0;
+
+    public CompilationSession() {
+        m_javac = ToolProvider.getSystemJavaCompiler();
+        if (m_javac == null) {
+            throw new IllegalStateException("No system java compiler available. Make sure to run on a JDK.");
+        }
+        m_standardFileManager = m_javac.getStandardFileManager(null, null, null);
+    }
+
+    public InMemoryJavaCompiler newCompiler() {
+        m_numberOfCompilations++;
+        return InMemoryJavaCompiler.newInstance(this);
+    }
+
+    public EclipseJavaCompiler newEclipseCompiler() {
+        m_numberOfCompilations++;
+        if (m_nameEnvironment == null) {
+            m_nameEnvironment = new EclipseNameEnvironment();
+        }
+        return new EclipseJavaCompiler(m_nameEnvironment);
+    }
+
+    JavaCompiler getJavac() {
+        return m_javac;
+    }
+
+    StandardJavaFileManager getStandardFileManager() {
+        return m_standardFileManager;
+    }
+
+    // returns the source object of the previous compilation if the code of the class did not change
+    SourceCode getSourceCode(String className, String code) throws Exception {
+        SourceCode sourceCode = m_sourceCodes.get(className);
+        if (sourceCode != null && code.equals(m_sourceContents.get(className))) {
+            return sourceCode;
+        }
+        sourceCode = new SourceCode(className, code);
+        m_sourceCodes.put(className, sourceCode);
+        m_sourceContents.put(className, code);
+        return sourceCode;
+    }
+
+    public int getNumberOfCompilations() {
+        return m_numberOfCompilations;
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_sourceCodes.clear();
+        m_sourceContents.clear();
+        m_nameEnvironment = null;
+        m_standardFileManager.close();
+    }
+}
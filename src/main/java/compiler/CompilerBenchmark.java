@@ -0,0 +1,81 @@
+package compiler;
+
+import org.mdkt.compiler.CompilationException;
+import utility.FileUtility;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Compares the compiler backends on the bundled example projects.
+ * Every round compiles the complete example once and once with every single file left out,
+ * which mimics the mostly failing compilations of a DDmin run.
+ * <p>
+ * Usage: CompilerBenchmark [rounds] [example...]
+ */
+public class CompilerBenchmark {
+
+    private static final String[] EXAMPLES = {"CalculatorExample", "FibonacciExample", "LoopExample", "SimpleExample"};
+    private static final int WARMUP_ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String[] examples = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : EXAMPLES;
+
+        CompilationSession session = new CompilationSession();
+        System.out.printf("%-20s %8s %12s %12s %10s%n", "example", "compiles", "javac [ms]", "ecj [ms]", "speedup");
+        for (String example : examples) {
+            String modulePath = System.getProperty("user.dir") + File.separator + example;
+            Map<String, String> sources = new HashMap<>();
+            sources.putAll(FileUtility.readJavaFiles(FileSystems.getDefault().getPath(modulePath, "src")));
+            sources.putAll(FileUtility.readJavaFiles(FileSystems.getDefault().getPath(modulePath, "test")));
+            List<Map<String, String>> configurations = getConfigurations(sources);
+
+            run(session::newCompiler, configurations, WARMUP_ROUNDS);
+            run(session::newEclipseCompiler, configurations, WARMUP_ROUNDS);
+            long javac = run(session::newCompiler, configurations, rounds);
+            long ecj = run(session::newEclipseCompiler, configurations, rounds);
+
+            int compiles = rounds * configurations.size();
+            System.out.printf("%-20s %8d %12.3f %12.3f %9.2fx%n", example, compiles,
+                    javac / 1e6 / compiles, ecj / 1e6 / compiles, (double) javac / ecj);
+        }
+        session.close();
+    }
+
+    // the complete sources and the sources without each single file
+    private static List<Map<String, String>> getConfigurations(Map<String, String> sources) {
+        List<Map<String, String>> configurations = new ArrayList<>();
+        configurations.add(sources);
+        if (sources.size() > 1) {
+            for (String className : sources.keySet()) {
+                Map<String, String> configuration = new HashMap<>(sources);
+                configuration.remove(className);
+                configurations.add(configuration);
+            }
+        }
+        return configurations;
+    }
+
+    // returns the elapsed time in nanoseconds
+    private static long run(Supplier<ICompiler> compilers, List<Map<String, String>> configurations, int rounds) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            for (Map<String, String> configuration : configurations) {
+                ICompiler compiler = compilers.get().ignoreWarnings();
+                for (Map.Entry<String, String> source : configuration.entrySet()) {
+                    compiler.addSource(source.getKey(), source.getValue());
+                }
+                try {
+                    compiler.compileSources();
+                } catch (CompilationException e) {
+                    // failing compilations are part of the benchmark
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
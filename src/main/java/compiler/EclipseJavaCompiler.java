@@ -0,0 +1,192 @@
+package compiler;
+
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.core.compiler.CompilationProgress;
+import org.eclipse.jdt.internal.compiler.ClassFile;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.Compiler;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+import org.mdkt.compiler.CompilationException;
+import org.mdkt.compiler.CompiledCode;
+import org.mdkt.compiler.DynamicClassLoader;
+
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Compiles the sources in memory with the Eclipse compiler (ECJ) of JDT core.
+ * Compilers created by a {@link CompilationSession} share the name environment of the session.
+ */
+public class EclipseJavaCompiler implements ICompiler {
+
+    private static final String JAVA_VERSION = CompilerOptions.VERSION_1_8;
+
+    private final EclipseNameEnvironment m_nameEnvironment;
+    private final DynamicClassLoader m_classLoader = new DynamicClassLoader(ClassLoader.getSystemClassLoader());
+    private final Map<String, String> m_sourceCodes = new HashMap<>();
+    private final Map<String, byte[]> m_classPathCode = new HashMap<>();
+    private final Map<String, byte[]> m_compiledCode = new HashMap<>();
+    private final Map<String, String> m_sourceClassNames = new HashMap<>();
+    private boolean m_ignoreWarnings = false;
+    private boolean m_checkBeforeGenerate = false;
+
+    EclipseJavaCompiler(EclipseNameEnvironment nameEnvironment) {
+        m_nameEnvironment = nameEnvironment;
+    }
+
+    @Override
+    public EclipseJavaCompiler ignoreWarnings() {
+        m_ignoreWarnings = true;
+        return this;
+    }
+
+    @Override
+    public EclipseJavaCompiler checkBeforeGenerate() {
+        m_checkBeforeGenerate = true;
+        return this;
+    }
+
+    @Override
+    public EclipseJavaCompiler addSource(String className, String sourceCode) {
+        m_sourceCodes.put(className, sourceCode);
+        return this;
+    }
+
+    @Override
+    public EclipseJavaCompiler addCompiledCode(String className, byte[] byteCode) throws Exception {
+        CompiledCode code = new CompiledCode(className);
+        try (OutputStream os = code.openOutputStream()) {
+            os.write(byteCode);
+        }
+        m_classLoader.addCode(code);
+        return this;
+    }
+
+    @Override
+    public EclipseJavaCompiler addClassPathCode(String className, byte[] byteCode) throws Exception {
+        m_classPathCode.put(className, byteCode);
+        return addCompiledCode(className, byteCode);
+    }
+
+    @Override
+    public void compileSources() throws Exception {
+        if (m_sourceCodes.isEmpty()) {
+            throw new CompilationException("No source code to compile");
+        }
+        Map<String, String> unitClassNames = new HashMap<>();
+        List<ICompilationUnit> units = new ArrayList<>();
+        for (Map.Entry<String, String> source : m_sourceCodes.entrySet()) {
+            String fileName = source.getKey().replace('.', '/') + ".java";
+            unitClassNames.put(fileName, source.getKey());
+            units.add(new CompilationUnit(source.getValue().toCharArray(), fileName, null));
+        }
+
+        StringBuilder exceptionMsg = new StringBuilder("Unable to compile the source");
+        boolean[] hasProblems = new boolean[2];
+        List<ClassFile> classFiles = new ArrayList<>();
+        m_nameEnvironment.reset(m_sourceCodes.keySet(), m_classPathCode);
+        Compiler compiler = new Compiler(m_nameEnvironment,
+                m_checkBeforeGenerate ? DefaultErrorHandlingPolicies.exitOnFirstError() : DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+                getCompilerOptions(),
+                result -> {
+                    if (result.hasProblems()) {
+                        for (CategorizedProblem problem : result.getProblems()) {
+                            hasProblems[problem.isError() ? 0 : 1] = true;
+                            exceptionMsg.append("\n").append("[kind=").append(problem.isError() ? "ERROR" : "WARNING");
+                            exceptionMsg.append(", ").append("line=").append(problem.getSourceLineNumber());
+                            exceptionMsg.append(", ").append("message=").append(problem.getMessage()).append("]");
+                        }
+                    }
+                    String sourceClassName = unitClassNames.get(new String(result.getFileName()));
+                    for (ClassFile classFile : result.getClassFiles()) {
+                        classFiles.add(classFile);
+                        m_sourceClassNames.put(new String(CharOperation.concatWith(classFile.getCompoundName(), '.')), sourceClassName);
+                    }
+                },
+                new DefaultProblemFactory(Locale.US),
+                null,
+                new CancellationProgress());
+        compiler.compile(units.toArray(new ICompilationUnit[0]));
+        // a cancelled compilation is aborted without reporting a problem
+        CompilationCancelledException.checkCancelled();
+
+        // class files of sources with errors contain methods throwing the problems at runtime
+        if (hasProblems[0] || hasProblems[1] && !m_ignoreWarnings) {
+            throw new CompilationException(exceptionMsg.toString());
+        }
+        for (ClassFile classFile : classFiles) {
+            String className = new String(CharOperation.concatWith(classFile.getCompoundName(), '.'));
+            m_compiledCode.put(className, classFile.getBytes());
+            addCompiledCode(className, classFile.getBytes());
+        }
+    }
+
+    private static CompilerOptions getCompilerOptions() {
+        Map<String, String> settings = new HashMap<>();
+        settings.put(CompilerOptions.OPTION_Source, JAVA_VERSION);
+        settings.put(CompilerOptions.OPTION_Compliance, JAVA_VERSION);
+        settings.put(CompilerOptions.OPTION_TargetPlatform, JAVA_VERSION);
+        settings.put(CompilerOptions.OPTION_Process_Annotations, CompilerOptions.DISABLED);
+        settings.put(CompilerOptions.OPTION_LineNumberAttribute, CompilerOptions.GENERATE);
+        settings.put(CompilerOptions.OPTION_SourceFileAttribute, CompilerOptions.GENERATE);
+        return new CompilerOptions(settings);
+    }
+
+    @Override
+    public Map<String, Class<?>> compileAll() throws Exception {
+        compileSources();
+        Map<String, Class<?>> classes = new HashMap<>();
+        for (String className : m_sourceCodes.keySet()) {
+            // a source might not declare its primary class (anymore)
+            if (m_compiledCode.containsKey(className)) {
+                classes.put(className, m_classLoader.loadClass(className));
+            }
+        }
+        return classes;
+    }
+
+    @Override
+    public Map<String, byte[]> getCompiledCode() {
+        return m_compiledCode;
+    }
+
+    @Override
+    public String getSourceClassName(String className) {
+        return m_sourceClassNames.get(className);
+    }
+
+    @Override
+    public ClassLoader getClassloader() {
+        return m_classLoader;
+    }
+
+    // stops the compilation of a cancelled test between the compilation units and phases
+    private static class CancellationProgress extends CompilationProgress {
+
+        @Override
+        public void begin(int remainingWork) {
+        }
+
+        @Override
+        public void done() {
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return Thread.currentThread().isInterrupted();
+        }
+
+        @Override
+        public void setTaskName(String name) {
+        }
+
+        @Override
+        public void worked(int workIncrement, int remainingWork) {
+        }
+    }
+}
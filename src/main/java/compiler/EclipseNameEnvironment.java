@@ -0,0 +1,169 @@
+package compiler;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
+import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
+import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Resolves the types referenced by the sources compiled with the {@link EclipseJavaCompiler}.
+ * Library types are read from the system class loader and kept for the lifetime of the environment,
+ * so the parsed JDK and classpath types stay warm across compilations of the same {@link CompilationSession}.
+ * An environment must not be shared between threads.
+ */
+public class EclipseNameEnvironment implements INameEnvironment {
+
+    private static volatile Set<String> s_libraryPackages;
+
+    private final Map<String, ClassFileReader> m_libraryTypes = new HashMap<>();
+    private final Set<String> m_missingLibraryTypes = new HashSet<>();
+    private Map<String, byte[]> m_classPathCode = Collections.emptyMap();
+    private Set<String> m_packages = Collections.emptySet();
+
+    // prepares the environment for the next compilation
+    void reset(Collection<String> sourceClassNames, Map<String, byte[]> classPathCode) {
+        m_classPathCode = classPathCode;
+        m_packages = new HashSet<>();
+        for (String className : sourceClassNames) {
+            addPackages(m_packages, className);
+        }
+        for (String className : classPathCode.keySet()) {
+            addPackages(m_packages, className);
+        }
+    }
+
+    @Override
+    public NameEnvironmentAnswer findType(char[][] compoundTypeName) {
+        return findType(new String(CharOperation.concatWith(compoundTypeName, '.')));
+    }
+
+    @Override
+    public NameEnvironmentAnswer findType(char[] typeName, char[][] packageName) {
+        return findType(new String(CharOperation.concatWith(packageName, typeName, '.')));
+    }
+
+    private NameEnvironmentAnswer findType(String className) {
+        try {
+            byte[] byteCode = m_classPathCode.get(className);
+            if (byteCode != null) {
+                return new NameEnvironmentAnswer(new ClassFileReader(byteCode, (className.replace('.', '/') + ".class").toCharArray()), null);
+            }
+            ClassFileReader reader = findLibraryType(className);
+            return reader == null ? null : new NameEnvironmentAnswer(reader, null);
+        } catch (ClassFormatException | IOException e) {
+            return null;
+        }
+    }
+
+    private ClassFileReader findLibraryType(String className) throws ClassFormatException, IOException {
+        ClassFileReader reader = m_libraryTypes.get(className);
+        if (reader != null || m_missingLibraryTypes.contains(className)) {
+            return reader;
+        }
+        String fileName = className.replace('.', '/') + ".class";
+        try (InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream(fileName)) {
+            if (is == null) {
+                m_missingLibraryTypes.add(className);
+                return null;
+            }
+            reader = new ClassFileReader(IOUtils.toByteArray(is), fileName.toCharArray());
+        }
+        m_libraryTypes.put(className, reader);
+        return reader;
+    }
+
+    @Override
+    public boolean isPackage(char[][] parentPackageName, char[] packageName) {
+        String name = new String(CharOperation.concatWith(parentPackageName, packageName, '.'));
+        return m_packages.contains(name) || getLibraryPackages().contains(name);
+    }
+
+    @Override
+    public void cleanup() {
+        // the library types are kept for the next compilation
+    }
+
+    private static void addPackages(Set<String> packages, String className) {
+        int index = className.lastIndexOf('.');
+        while (index > 0) {
+            className = className.substring(0, index);
+            packages.add(className);
+            index = className.lastIndexOf('.');
+        }
+    }
+
+    private static String toClassName(String fileName) {
+        return fileName.substring(0, fileName.length() - ".class".length()).replace('/', '.');
+    }
+
+    // packages of the JDK and of the class path of the running JVM
+    private static Set<String> getLibraryPackages() {
+        Set<String> packages = s_libraryPackages;
+        if (packages == null) {
+            synchronized (EclipseNameEnvironment.class) {
+                packages = s_libraryPackages;
+                if (packages == null) {
+                    packages = new HashSet<>();
+                    addJdkPackages(packages);
+                    for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                        addClassPathPackages(packages, new File(entry));
+                    }
+                    s_libraryPackages = packages = Collections.unmodifiableSet(packages);
+                }
+            }
+        }
+        return packages;
+    }
+
+    private static void addJdkPackages(Set<String> packages) {
+        try {
+            FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+            try (Stream<Path> stream = Files.list(jrt.getPath("/packages"))) {
+                stream.forEach(path -> addPackages(packages, path.getFileName().toString() + ".X"));
+            }
+        } catch (FileSystemNotFoundException | ProviderNotFoundException | IOException e) {
+            // java 8 keeps the JDK classes in the boot class path archives
+            String bootClassPath = System.getProperty("sun.boot.class.path");
+            if (bootClassPath != null) {
+                for (String entry : bootClassPath.split(File.pathSeparator)) {
+                    addClassPathPackages(packages, new File(entry));
+                }
+            }
+        }
+    }
+
+    private static void addClassPathPackages(Set<String> packages, File entry) {
+        if (entry.isDirectory()) {
+            try (Stream<Path> stream = Files.walk(entry.toPath())) {
+                stream.filter(path -> path.toString().endsWith(".class"))
+                        .forEach(path -> addPackages(packages, toClassName(entry.toPath().relativize(path).toString().replace(File.separatorChar, '/'))));
+            } catch (IOException e) {
+                // unreadable class path entries are ignored, as they are by javac
+            }
+        } else if (entry.isFile()) {
+            try (JarFile jar = new JarFile(entry)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+                        addPackages(packages, toClassName(name));
+                    }
+                }
+            } catch (IOException e) {
+                // unreadable class path entries are ignored, as they are by javac
+            }
+        }
+    }
+}
@@ -2,23 +2,26 @@ package compiler;
 
 import org.mdkt.compiler.CompiledCode;
 import org.mdkt.compiler.DynamicClassLoader;
+import org.mdkt.compiler.SourceCode;
 
-import javax.tools.FileObject;
-import javax.tools.JavaFileManager;
-import javax.tools.JavaFileObject;
-import java.io.File;
-import java.io.IOException;
+import javax.tools.*;
+import java.io.*;
+import java.net.URI;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Adapted from {@link org.mdkt.compiler.ExtendedStandardJavaFileManager}.
- * Expose constructor.
+ * Expose constructor and the compiled code.
+ * Already compiled bytecode can be put on the class path of the compilation.
+ * javac looks up packages and output files through the file manager throughout a compilation, so these calls stop the
+ * compilation of a cancelled test.
  */
 public class ExtendedStandardJavaFileManager extends org.mdkt.compiler.ExtendedStandardJavaFileManager {
 
     private List<CompiledCode> compiledCode = new ArrayList<>();
+    private Map<String, String> sourceClassNames = new HashMap<>();
+    private Map<String, ByteCodeFileObject> classPathCode = new HashMap<>();
     private DynamicClassLoader cl;
 
     protected ExtendedStandardJavaFileManager(JavaFileManager fileManager, DynamicClassLoader cl) {
@@ -27,9 +30,13 @@ public class ExtendedStandardJavaFileManager extends org.mdkt.compiler.ExtendedS
     }
 
     public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+        CompilationCancelledException.checkCancelled();
         try {
             CompiledCode innerClass = new CompiledCode(className);
             this.compiledCode.add(innerClass);
+            if (sibling instanceof SourceCode) {
+                this.sourceClassNames.put(className, ((SourceCode) sibling).getClassName());
+            }
             this.cl.addCode(innerClass);
             return innerClass;
         } catch (Exception var6) {
@@ -37,6 +44,45 @@ public class ExtendedStandardJavaFileManager extends org.mdkt.compiler.ExtendedS
         }
     }
 
+    public void addClassPathCode(String className, byte[] byteCode) {
+        classPathCode.put(className, new ByteCodeFileObject(className, byteCode));
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+        CompilationCancelledException.checkCancelled();
+        Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+        if (classPathCode.isEmpty() || location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS)) {
+            return files;
+        }
+        List<JavaFileObject> result = new ArrayList<>();
+        files.forEach(result::add);
+        for (ByteCodeFileObject file : classPathCode.values()) {
+            String filePackage = file.getPackageName();
+            if (filePackage.equals(packageName) || recurse && (packageName.isEmpty() || filePackage.startsWith(packageName + "."))) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        if (file instanceof ByteCodeFileObject) {
+            return ((ByteCodeFileObject) file).getClassName();
+        }
+        return super.inferBinaryName(location, file);
+    }
+
+    public List<CompiledCode> getCompiledCode() {
+        return compiledCode;
+    }
+
+    // returns the name of the source class the given class was compiled from
+    public String getSourceClassName(String className) {
+        return sourceClassNames.get(className);
+    }
+
     public void copyCompiledCodeToFolder(File folder) throws IOException {
         if (folder == null || !folder.exists() || !folder.isDirectory()) {
             throw new RuntimeException("Invalid folder for copying compiled code");
@@ -51,4 +97,33 @@ public class ExtendedStandardJavaFileManager extends org.mdkt.compiler.ExtendedS
             }
         }
     }
+
+    /**
+     * Compiled class that is read by the compiler from memory.
+     */
+    private static class ByteCodeFileObject extends SimpleJavaFileObject {
+
+        private final String className;
+        private final byte[] byteCode;
+
+        ByteCodeFileObject(String className, byte[] byteCode) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + ".class"), Kind.CLASS);
+            this.className = className;
+            this.byteCode = byteCode;
+        }
+
+        String getClassName() {
+            return className;
+        }
+
+        String getPackageName() {
+            int index = className.lastIndexOf('.');
+            return index < 0 ? "" : className.substring(0, index);
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(byteCode);
+        }
+    }
 }
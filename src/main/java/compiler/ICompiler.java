@@ -0,0 +1,37 @@
+package compiler;
+
+import java.util.Map;
+
+/**
+ * Compiler backend compiling java sources in memory.
+ * Compilation errors are reported by throwing a {@link org.mdkt.compiler.CompilationException}.
+ */
+public interface ICompiler {
+
+    ICompiler ignoreWarnings();
+
+    // type check without annotation processing and stop at the first error before generating bytecode
+    ICompiler checkBeforeGenerate();
+
+    ICompiler addSource(String className, String sourceCode) throws Exception;
+
+    // adds already compiled bytecode to the class loader of this compiler
+    ICompiler addCompiledCode(String className, byte[] byteCode) throws Exception;
+
+    // adds already compiled bytecode to the class path of the compilation and to the class loader of this compiler
+    ICompiler addClassPathCode(String className, byte[] byteCode) throws Exception;
+
+    // compiles all sources without loading the compiled classes
+    void compileSources() throws Exception;
+
+    // compiles all sources and loads the classes declared by the sources
+    Map<String, Class<?>> compileAll() throws Exception;
+
+    // bytecode of all classes compiled from the sources by binary class name
+    Map<String, byte[]> getCompiledCode();
+
+    // returns the name of the source class the given class was compiled from
+    String getSourceClassName(String className);
+
+    ClassLoader getClassloader();
+}
@@ -6,21 +6,31 @@ import org.mdkt.compiler.DynamicClassLoader;
 import org.mdkt.compiler.SourceCode;
 
 import javax.tools.*;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
 import java.nio.charset.Charset;
 import java.util.*;
 
 /**
  * Adapted from {@link org.mdkt.compiler.InMemoryJavaCompiler}.
  * Exposing file manager.
+ * Compilers created by a {@link CompilationSession} reuse the javac instance and the standard file manager of the session.
+ * In two-phase mode, the sources are type checked first and bytecode is only generated if the check passes.
  */
-public class InMemoryJavaCompiler {
+public class InMemoryJavaCompiler implements ICompiler {
     protected ExtendedStandardJavaFileManager fileManager;
     boolean ignoreWarnings = false;
+    boolean checkBeforeGenerate = false;
     private JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    private CompilationSession session;
     private DynamicClassLoader classLoader = new DynamicClassLoader(ClassLoader.getSystemClassLoader());
     private Iterable<String> options;
     private Map<String, SourceCode> sourceCodes = new HashMap();
+    private Map<String, byte[]> classPathCode = new HashMap<>();
 
     private InMemoryJavaCompiler() {
     }
@@ -29,6 +39,13 @@ public class InMemoryJavaCompiler {
         return new InMemoryJavaCompiler();
     }
 
+    static InMemoryJavaCompiler newInstance(CompilationSession session) {
+        InMemoryJavaCompiler compiler = new InMemoryJavaCompiler();
+        compiler.session = session;
+        compiler.javac = session.getJavac();
+        return compiler;
+    }
+
     public InMemoryJavaCompiler useParentClassLoader(ClassLoader parent) {
         this.classLoader = new DynamicClassLoader(parent);
         return this;
@@ -38,6 +55,18 @@ public class InMemoryJavaCompiler {
         return fileManager;
     }
 
+    public Map<String, byte[]> getCompiledCode() {
+        Map<String, byte[]> compiledCode = new HashMap<>();
+        for (CompiledCode code : fileManager.getCompiledCode()) {
+            compiledCode.put(code.getClassName(), code.getByteCode());
+        }
+        return compiledCode;
+    }
+
+    public String getSourceClassName(String className) {
+        return fileManager.getSourceClassName(className);
+    }
+
     public ClassLoader getClassloader() {
         return this.classLoader;
     }
@@ -52,65 +81,175 @@ public class InMemoryJavaCompiler {
         return this;
     }
 
+    // type check without annotation processing and stop at the first error before generating bytecode
+    public InMemoryJavaCompiler checkBeforeGenerate() {
+        this.checkBeforeGenerate = true;
+        return this;
+    }
+
     public Map<String, Class<?>> compileAll() throws Exception {
-        if (this.sourceCodes.size() == 0) {
-            throw new CompilationException("No source code to compile");
-        } else {
-            Collection<SourceCode> compilationUnits = this.sourceCodes.values();
-            CompiledCode[] code = new CompiledCode[compilationUnits.size()];
-            Iterator<SourceCode> iter = compilationUnits.iterator();
+        compileSources();
 
-            for (int i = 0; i < code.length; ++i) {
-                code[i] = new CompiledCode(((SourceCode) iter.next()).getClassName());
+        Map<String, Class<?>> classes = new HashMap();
+        Set<String> compiledClassNames = new HashSet<>();
+        for (CompiledCode compiledCode : fileManager.getCompiledCode()) {
+            compiledClassNames.add(compiledCode.getClassName());
+        }
+        Iterator var15 = this.sourceCodes.keySet().iterator();
+
+        while (var15.hasNext()) {
+            String className = (String) var15.next();
+            // a source might not declare its primary class (anymore)
+            if (compiledClassNames.contains(className)) {
+                classes.put(className, this.classLoader.loadClass(className));
             }
+        }
 
-            DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector();
-            fileManager = new compiler.ExtendedStandardJavaFileManager(this.javac.getStandardFileManager((DiagnosticListener) null, (Locale) null, (Charset) null), this.classLoader);
-            JavaCompiler.CompilationTask task = this.javac.getTask((Writer) null, fileManager, collector, this.options, (Iterable) null, compilationUnits);
-            boolean result = task.call();
-            if (!result || collector.getDiagnostics().size() > 0) {
-                StringBuffer exceptionMsg = new StringBuffer();
-                exceptionMsg.append("Unable to compile the source");
-                boolean hasWarnings = false;
-                boolean hasErrors = false;
-                Iterator var11 = collector.getDiagnostics().iterator();
-
-                while (true) {
-                    if (!var11.hasNext()) {
-                        if (hasWarnings && !this.ignoreWarnings || hasErrors) {
-                            throw new CompilationException(exceptionMsg.toString());
-                        }
-                        break;
-                    }
+        return classes;
+    }
 
-                    Diagnostic<? extends JavaFileObject> d = (Diagnostic) var11.next();
-                    switch (d.getKind()) {
-                        case NOTE:
-                        case MANDATORY_WARNING:
-                        case WARNING:
-                            hasWarnings = true;
-                            break;
-                        case OTHER:
-                        case ERROR:
-                        default:
-                            hasErrors = true;
-                    }
+    // compiles all sources without loading the compiled classes
+    public void compileSources() throws Exception {
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector();
+        try {
+            if (this.checkBeforeGenerate) {
+                JavaCompiler.CompilationTask task = createTask(collector, true);
+                invokePhase(task, "analyze");
+                checkDiagnostics(collector, true);
+                invokePhase(task, "generate");
+                checkDiagnostics(collector, true);
+            } else {
+                checkDiagnostics(collector, createTask(collector, false).call());
+            }
+        } catch (RuntimeException e) {
+            throw unwrapTaskException(e, collector);
+        }
+    }
 
-                    exceptionMsg.append("\n").append("[kind=").append(d.getKind());
-                    exceptionMsg.append(", ").append("line=").append(d.getLineNumber());
-                    exceptionMsg.append(", ").append("message=").append(d.getMessage(Locale.US)).append("]");
-                }
+    // type checks all sources without generating any bytecode
+    public void check() throws Exception {
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector();
+        try {
+            invokePhase(createTask(collector, true), "analyze");
+        } catch (RuntimeException e) {
+            throw unwrapTaskException(e, collector);
+        }
+        checkDiagnostics(collector, true);
+    }
+
+    // javac wraps exceptions thrown by the diagnostic listener and the file manager
+    private RuntimeException unwrapTaskException(RuntimeException e, DiagnosticCollector<JavaFileObject> collector) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CompilationCancelledException) {
+                return (CompilationCancelledException) cause;
+            }
+            if (cause instanceof ClosedChannelException) {
+                return new CompilationCancelledException(e);
             }
+            if (cause instanceof FirstErrorException) {
+                checkDiagnostics(collector, false);
+            }
+        }
+        return e;
+    }
 
-            Map<String, Class<?>> classes = new HashMap();
-            Iterator var15 = this.sourceCodes.keySet().iterator();
+    // the separate analyze and generate phases of javac are only declared by com.sun.source.util.JavacTask, which is not
+    // part of the Java 8 platform API (it is in tools.jar there), so they are invoked through the task's own class loader
+    private static void invokePhase(JavaCompiler.CompilationTask task, String phase) throws Exception {
+        Method method;
+        try {
+            method = Class.forName("com.sun.source.util.JavacTask", false, task.getClass().getClassLoader()).getMethod(phase);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The system java compiler does not support the " + phase + " phase", e);
+        }
+        try {
+            method.invoke(task);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
 
-            while (var15.hasNext()) {
-                String className = (String) var15.next();
-                classes.put(className, this.classLoader.loadClass(className));
+    // aborts a type check at the first error, -Xmaxerrs would only limit the reported errors
+    private static class FirstErrorException extends RuntimeException {
+    }
+
+    private JavaCompiler.CompilationTask createTask(DiagnosticCollector<JavaFileObject> collector, boolean checkOnly) {
+        if (this.sourceCodes.size() == 0) {
+            throw new CompilationException("No source code to compile");
+        }
+        Collection<SourceCode> compilationUnits = this.sourceCodes.values();
+        StandardJavaFileManager standardFileManager = this.session != null
+                ? this.session.getStandardFileManager()
+                : this.javac.getStandardFileManager((DiagnosticListener) null, (Locale) null, (Charset) null);
+        fileManager = new compiler.ExtendedStandardJavaFileManager(standardFileManager, this.classLoader);
+        for (Map.Entry<String, byte[]> classPathCode : this.classPathCode.entrySet()) {
+            fileManager.addClassPathCode(classPathCode.getKey(), classPathCode.getValue());
+        }
+        List<String> taskOptions = new ArrayList<>();
+        if (this.options != null) {
+            this.options.forEach(taskOptions::add);
+        }
+        if (checkOnly) {
+            taskOptions.add("-proc:none");
+        }
+        // the diagnostics and the calls of the file manager stop the compilation of a cancelled test
+        DiagnosticListener<JavaFileObject> diagnosticListener = diagnostic -> {
+            CompilationCancelledException.checkCancelled();
+            collector.report(diagnostic);
+            if (checkOnly && diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                throw new FirstErrorException();
+            }
+        };
+        return this.javac.getTask((Writer) null, fileManager, diagnosticListener, taskOptions, (Iterable) null, compilationUnits);
+    }
+
+    private void checkDiagnostics(DiagnosticCollector<JavaFileObject> collector, boolean result) {
+        // an interrupt while javac reads a class file closes the archive, which is reported as a bad class file,
+        // so the result of an interrupted compilation must not be taken as a compilation error
+        CompilationCancelledException.checkCancelled();
+        for (Diagnostic<? extends JavaFileObject> d : collector.getDiagnostics()) {
+            String message = d.getMessage(Locale.US);
+            if (message != null && (message.contains(ClosedChannelException.class.getSimpleName())
+                    || message.contains(ClosedByInterruptException.class.getSimpleName()))) {
+                throw new CompilationCancelledException(message);
             }
+        }
+        if (!result || collector.getDiagnostics().size() > 0) {
+            StringBuffer exceptionMsg = new StringBuffer();
+            exceptionMsg.append("Unable to compile the source");
+            boolean hasWarnings = false;
+            boolean hasErrors = !result;
+            Iterator var11 = collector.getDiagnostics().iterator();
+
+            while (true) {
+                if (!var11.hasNext()) {
+                    if (hasWarnings && !this.ignoreWarnings || hasErrors) {
+                        throw new CompilationException(exceptionMsg.toString());
+                    }
+                    break;
+                }
+
+                Diagnostic<? extends JavaFileObject> d = (Diagnostic) var11.next();
+                switch (d.getKind()) {
+                    case NOTE:
+                    case MANDATORY_WARNING:
+                    case WARNING:
+                        hasWarnings = true;
+                        break;
+                    case OTHER:
+                    case ERROR:
+                    default:
+                        hasErrors = true;
+                }
 
-            return classes;
+                exceptionMsg.append("\n").append("[kind=").append(d.getKind());
+                exceptionMsg.append(", ").append("line=").append(d.getLineNumber());
+                exceptionMsg.append(", ").append("message=").append(d.getMessage(Locale.US)).append("]");
+            }
         }
     }
 
@@ -118,8 +257,24 @@ public class InMemoryJavaCompiler {
         return (Class) this.addSource(className, sourceCode).compileAll().get(className);
     }
 
+    // adds already compiled bytecode to the class loader of this compiler
+    public InMemoryJavaCompiler addCompiledCode(String className, byte[] byteCode) throws Exception {
+        CompiledCode code = new CompiledCode(className);
+        try (OutputStream os = code.openOutputStream()) {
+            os.write(byteCode);
+        }
+        this.classLoader.addCode(code);
+        return this;
+    }
+
+    // adds already compiled bytecode to the class path of the compilation and to the class loader of this compiler
+    public InMemoryJavaCompiler addClassPathCode(String className, byte[] byteCode) throws Exception {
+        this.classPathCode.put(className, byteCode);
+        return addCompiledCode(className, byteCode);
+    }
+
     public InMemoryJavaCompiler addSource(String className, String sourceCode) throws Exception {
-        this.sourceCodes.put(className, new SourceCode(className, sourceCode));
+        this.sourceCodes.put(className, this.session != null ? this.session.getSourceCode(className, sourceCode) : new SourceCode(className, sourceCode));
         return this;
     }
 }
@@ -0,0 +1,86 @@
+package compiler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Bytecode of single compilation units, keyed by the name of the unit and a hash of its source text.
+ * An entry records the API hashes of the units it was compiled against, so it is only reused as long as
+ * these units expose the same API. The cache is shared between all threads and bounded in size.
+ */
+public class IncrementalCompilationCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private final int m_maxEntries;
+    private final Map<String, Entry> m_entries;
+
+    /**
+     * Compilation result of a single unit.
+     */
+    static class Entry {
+        // bytecode of all classes declared in the unit by binary class name
+        final Map<String, byte[]> classes;
+        // hash of the non-private API of all classes declared in the unit
+        final String apiHash;
+        // units declaring the super classes and interfaces of the classes in the unit
+        final Set<String> supertypeUnits;
+        // units the unit was compiled against with their effective API hash at that time
+        final Map<String, String> dependencies;
+        // identifiers used in the source text of the unit
+        final Set<String> identifiers;
+
+        Entry(Map<String, byte[]> classes, String apiHash, Set<String> supertypeUnits, Map<String, String> dependencies, Set<String> identifiers) {
+            this.classes = classes;
+            this.apiHash = apiHash;
+            this.supertypeUnits = supertypeUnits;
+            this.dependencies = dependencies;
+            this.identifiers = identifiers;
+        }
+    }
+
+    public IncrementalCompilationCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public IncrementalCompilationCache(int maxEntries) {
+        m_maxEntries = maxEntries;
+        m_entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IncrementalCompilationCache.Entry> eldest) {
+                return size() > m_maxEntries;
+            }
+        };
+    }
+
+    synchronized Entry get(String unitName, String code) {
+        return m_entries.get(key(unitName, code));
+    }
+
+    synchronized void put(String unitName, String code, Entry entry) {
+        m_entries.put(key(unitName, code), entry);
+    }
+
+    public synchronized int size() {
+        return m_entries.size();
+    }
+
+    public synchronized void clear() {
+        m_entries.clear();
+    }
+
+    private static String key(String unitName, String code) {
+        return unitName + "#" + hash(code);
+    }
+
+    static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package compiler;
+
+import org.mdkt.compiler.CompilationException;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles only the compilation units whose source text changed or which depend on a unit whose API changed.
+ * The bytecode of all other units is taken from the {@link IncrementalCompilationCache} and put on the class path.
+ * <p>
+ * The API of a unit is hashed from the non-private members, generic signatures, thrown exceptions and constant values
+ * of its classes. The effective API additionally contains the effective API of the units declaring its super types.
+ * A unit depends on every unit whose simple name it mentions and on the units of all classes its bytecode references.
+ */
+public class IncrementalJavaCompiler {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+    private static final String ABSENT = "-";
+    private static final int PRIVATE = 0x0002;
+    private static final int SYNTHETIC = 0x1000;
+
+    private final Supplier<ICompiler> m_compilers;
+    private final IncrementalCompilationCache m_cache;
+    private final Map<String, String> m_sources = new HashMap<>();
+    private int m_compiledUnits = 0;
+    private int m_reusedUnits = 0;
+
+    // the compilers are created by the given supplier for every compilation round
+    public IncrementalJavaCompiler(Supplier<ICompiler> compilers, IncrementalCompilationCache cache) {
+        m_compilers = compilers;
+        m_cache = cache;
+    }
+
+    public IncrementalJavaCompiler addSource(String unitName, String code) {
+        m_sources.put(unitName, code);
+        return this;
+    }
+
+    // number of units passed to javac, including recompilations of units with a changed dependency
+    public int getCompiledUnits() {
+        return m_compiledUnits;
+    }
+
+    // number of units whose cached bytecode was used
+    public int getReusedUnits() {
+        return m_reusedUnits;
+    }
+
+    /**
+     * Compiles all changed units and loads them together with the reused bytecode of the unchanged units.
+     *
+     * @return a class loader containing the classes of all units
+     */
+    public ClassLoader compileAll() throws Exception {
+        if (m_sources.isEmpty()) {
+            throw new CompilationException("No source code to compile");
+        }
+        Map<String, Set<String>> unitsBySimpleName = new HashMap<>();
+        for (String unitName : m_sources.keySet()) {
+            unitsBySimpleName.computeIfAbsent(simpleName(unitName), k -> new HashSet<>()).add(unitName);
+        }
+
+        Map<String, IncrementalCompilationCache.Entry> reused = new HashMap<>();
+        for (Map.Entry<String, String> source : m_sources.entrySet()) {
+            IncrementalCompilationCache.Entry entry = m_cache.get(source.getKey(), source.getValue());
+            // a new unit with a mentioned name could change how the unit resolves its types
+            if (entry != null && entry.dependencies.keySet().containsAll(candidates(entry.identifiers, unitsBySimpleName, source.getKey()))) {
+                reused.put(source.getKey(), entry);
+            }
+        }
+
+        while (true) {
+            Set<String> compileSet = new HashSet<>(m_sources.keySet());
+            compileSet.removeAll(reused.keySet());
+            ICompiler compiler = m_compilers.get();
+            for (IncrementalCompilationCache.Entry entry : reused.values()) {
+                for (Map.Entry<String, byte[]> code : entry.classes.entrySet()) {
+                    compiler.addClassPathCode(code.getKey(), code.getValue());
+                }
+            }
+            for (String unitName : compileSet) {
+                compiler.addSource(unitName, m_sources.get(unitName));
+            }
+            m_compiledUnits += compileSet.size();
+
+            if (!compileSet.isEmpty()) {
+                try {
+                    compiler.compileSources();
+                } catch (CompilationException e) {
+                    if (reused.isEmpty()) {
+                        throw e;
+                    }
+                    // the error might be caused by outdated bytecode on the class path
+                    reused.clear();
+                    continue;
+                }
+            }
+
+            Map<String, Map<String, byte[]>> compiledClasses = new HashMap<>();
+            for (String unitName : compileSet) {
+                compiledClasses.put(unitName, new HashMap<>());
+            }
+            if (!compileSet.isEmpty()) {
+                for (Map.Entry<String, byte[]> code : compiler.getCompiledCode().entrySet()) {
+                    String unitName = compiler.getSourceClassName(code.getKey());
+                    if (compiledClasses.containsKey(unitName)) {
+                        compiledClasses.get(unitName).put(code.getKey(), code.getValue());
+                    }
+                }
+            }
+
+            Map<String, String> classUnits = new HashMap<>();
+            reused.forEach((unitName, entry) -> entry.classes.keySet().forEach(className -> classUnits.put(className, unitName)));
+            compiledClasses.forEach((unitName, classes) -> classes.keySet().forEach(className -> classUnits.put(className, unitName)));
+
+            Map<String, String> apiHashes = new HashMap<>();
+            Map<String, Set<String>> supertypeUnits = new HashMap<>();
+            Map<String, Map<String, ClassFileInfo>> infos = new HashMap<>();
+            reused.forEach((unitName, entry) -> {
+                apiHashes.put(unitName, entry.apiHash);
+                supertypeUnits.put(unitName, entry.supertypeUnits);
+            });
+            for (Map.Entry<String, Map<String, byte[]>> unit : compiledClasses.entrySet()) {
+                Map<String, ClassFileInfo> unitInfos = new TreeMap<>();
+                for (Map.Entry<String, byte[]> code : unit.getValue().entrySet()) {
+                    unitInfos.put(code.getKey(), new ClassFileInfo(code.getValue()));
+                }
+                infos.put(unit.getKey(), unitInfos);
+                apiHashes.put(unit.getKey(), apiHash(unitInfos.values()));
+                supertypeUnits.put(unit.getKey(), supertypeUnits(unit.getKey(), unitInfos.values(), classUnits));
+            }
+
+            Map<String, String> effectiveApiHashes = new HashMap<>();
+            for (String unitName : m_sources.keySet()) {
+                effectiveApiHash(unitName, apiHashes, supertypeUnits, effectiveApiHashes, new HashSet<>());
+            }
+
+            Set<String> outdated = new HashSet<>();
+            for (Map.Entry<String, IncrementalCompilationCache.Entry> entry : reused.entrySet()) {
+                for (Map.Entry<String, String> dependency : entry.getValue().dependencies.entrySet()) {
+                    if (!dependency.getValue().equals(effectiveApiHashes.getOrDefault(dependency.getKey(), ABSENT))) {
+                        outdated.add(entry.getKey());
+                        break;
+                    }
+                }
+            }
+            if (!outdated.isEmpty()) {
+                reused.keySet().removeAll(outdated);
+                continue;
+            }
+
+            for (Map.Entry<String, Map<String, ClassFileInfo>> unit : infos.entrySet()) {
+                String unitName = unit.getKey();
+                Set<String> identifiers = identifiers(m_sources.get(unitName));
+                Set<String> dependencyUnits = new HashSet<>(candidates(identifiers, unitsBySimpleName, unitName));
+                for (ClassFileInfo info : unit.getValue().values()) {
+                    for (String className : info.getReferencedClasses()) {
+                        String dependencyUnit = classUnits.get(className);
+                        if (dependencyUnit != null && !dependencyUnit.equals(unitName)) {
+                            dependencyUnits.add(dependencyUnit);
+                        }
+                    }
+                }
+                Map<String, String> dependencies = new HashMap<>();
+                for (String dependencyUnit : dependencyUnits) {
+                    dependencies.put(dependencyUnit, effectiveApiHashes.getOrDefault(dependencyUnit, ABSENT));
+                }
+                m_cache.put(unitName, m_sources.get(unitName), new IncrementalCompilationCache.Entry(
+                        Collections.unmodifiableMap(compiledClasses.get(unitName)), apiHashes.get(unitName),
+                        supertypeUnits.get(unitName), dependencies, identifiers));
+            }
+            m_reusedUnits += reused.size();
+            return compiler.getClassloader();
+        }
+    }
+
+    private static String simpleName(String unitName) {
+        return unitName.substring(unitName.lastIndexOf('.') + 1);
+    }
+
+    private static Set<String> identifiers(String code) {
+        Set<String> identifiers = new HashSet<>();
+        Matcher matcher = IDENTIFIER.matcher(code);
+        while (matcher.find()) {
+            identifiers.add(matcher.group());
+        }
+        return identifiers;
+    }
+
+    // units whose simple name is mentioned in the identifiers
+    private static Set<String> candidates(Set<String> identifiers, Map<String, Set<String>> unitsBySimpleName, String unitName) {
+        Set<String> candidates = new HashSet<>();
+        for (Map.Entry<String, Set<String>> units : unitsBySimpleName.entrySet()) {
+            if (identifiers.contains(units.getKey())) {
+                candidates.addAll(units.getValue());
+            }
+        }
+        candidates.remove(unitName);
+        return candidates;
+    }
+
+    private static Set<String> supertypeUnits(String unitName, Collection<ClassFileInfo> infos, Map<String, String> classUnits) {
+        Set<String> units = new HashSet<>();
+        for (ClassFileInfo info : infos) {
+            List<String> supertypes = new ArrayList<>(info.getInterfaceNames());
+            supertypes.add(info.getSuperClassName());
+            for (String supertype : supertypes) {
+                String supertypeUnit = classUnits.get(supertype);
+                if (supertypeUnit != null && !supertypeUnit.equals(unitName)) {
+                    units.add(supertypeUnit);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(units);
+    }
+
+    private static String effectiveApiHash(String unitName, Map<String, String> apiHashes, Map<String, Set<String>> supertypeUnits, Map<String, String> effectiveApiHashes, Set<String> visiting) {
+        String hash = effectiveApiHashes.get(unitName);
+        if (hash != null) {
+            return hash;
+        }
+        if (!visiting.add(unitName)) {
+            // cyclic hierarchies do not compile, but the unit itself still has an API
+            return apiHashes.get(unitName);
+        }
+        StringBuilder sb = new StringBuilder(apiHashes.get(unitName));
+        for (String supertypeUnit : new TreeSet<>(supertypeUnits.get(unitName))) {
+            if (apiHashes.containsKey(supertypeUnit)) {
+                sb.append('|').append(supertypeUnit).append('=')
+                        .append(effectiveApiHash(supertypeUnit, apiHashes, supertypeUnits, effectiveApiHashes, visiting));
+            }
+        }
+        hash = IncrementalCompilationCache.hash(sb.toString());
+        effectiveApiHashes.put(unitName, hash);
+        return hash;
+    }
+
+    private static String apiHash(Collection<ClassFileInfo> infos) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (ClassFileInfo info : infos) {
+            sb.append(info.getClassName()).append(' ').append(info.getAccessFlags())
+                    .append(' ').append(info.getSuperClassName())
+                    .append(' ').append(info.getInterfaceNames())
+                    .append(' ').append(info.getSignature()).append('\n');
+            appendMembers(sb, info.getFields());
+            appendMembers(sb, info.getMethods());
+        }
+        return IncrementalCompilationCache.hash(sb.toString());
+    }
+
+    private static void appendMembers(StringBuilder sb, List<ClassFileInfo.Member> members) {
+        List<String> api = new ArrayList<>();
+        for (ClassFileInfo.Member member : members) {
+            if ((member.accessFlags & (PRIVATE | SYNTHETIC)) == 0) {
+                api.add(member.accessFlags + " " + member.getSignature() + " " + member.signature
+                        + " " + member.exceptions + " " + member.constantValue);
+            }
+        }
+        Collections.sort(api);
+        api.forEach(line -> sb.append(line).append('\n'));
+    }
+}
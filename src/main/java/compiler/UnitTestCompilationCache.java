@@ -0,0 +1,218 @@
+package compiler;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the sources of the unit tests in memory together with their bytecode of the first successful compilation.
+ * The bytecode can be reused for every configuration of the code under reduction that still declares all the classes,
+ * fields and methods the unit tests reference.
+ */
+public class UnitTestCompilationCache {
+
+    private final Map<String, String> m_sources;
+    private volatile boolean m_initialized = false;
+    private Map<String, byte[]> m_byteCode;
+    private Set<String> m_sourceClasses;
+    private Set<String> m_referencedSourceClasses;
+    private Set<ClassFileInfo.MemberReference> m_referencedSourceMembers;
+    private final Map<String, Boolean> m_libraryMembers = new ConcurrentHashMap<>();
+
+    public UnitTestCompilationCache(Map<String, String> sources) {
+        m_sources = Collections.unmodifiableMap(new HashMap<>(sources));
+    }
+
+    // source code of all unit test classes by class name
+    public Map<String, String> getSources() {
+        return m_sources;
+    }
+
+    public boolean isInitialized() {
+        return m_initialized;
+    }
+
+    /**
+     * Stores the unit test bytecode of a successful compilation of the unit tests together with the code under reduction.
+     *
+     * @param compiledCode  bytecode of all compiled classes by binary class name
+     * @param sourceClasses maps the binary class names to the name of the source they were compiled from
+     */
+    public synchronized void initialize(Map<String, byte[]> compiledCode, Map<String, String> sourceClasses) throws IOException {
+        if (m_initialized) {
+            return;
+        }
+        Map<String, byte[]> byteCode = new HashMap<>();
+        Set<String> codeClasses = new HashSet<>();
+        for (Map.Entry<String, byte[]> entry : compiledCode.entrySet()) {
+            if (m_sources.containsKey(sourceClasses.get(entry.getKey()))) {
+                byteCode.put(entry.getKey(), entry.getValue());
+            } else {
+                codeClasses.add(entry.getKey());
+            }
+        }
+
+        Set<String> referencedClasses = new HashSet<>();
+        Set<ClassFileInfo.MemberReference> referencedMembers = new HashSet<>();
+        for (byte[] code : byteCode.values()) {
+            ClassFileInfo info = new ClassFileInfo(code);
+            info.getReferencedClasses().stream()
+                    .filter(codeClasses::contains)
+                    .forEach(referencedClasses::add);
+            info.getReferencedMembers().stream()
+                    .filter(ref -> codeClasses.contains(ref.owner))
+                    .forEach(referencedMembers::add);
+        }
+
+        m_byteCode = Collections.unmodifiableMap(byteCode);
+        m_sourceClasses = codeClasses;
+        m_referencedSourceClasses = referencedClasses;
+        m_referencedSourceMembers = referencedMembers;
+        m_initialized = true;
+    }
+
+    // bytecode of the unit test classes by binary class name
+    public Map<String, byte[]> getByteCode() {
+        return m_byteCode;
+    }
+
+    /**
+     * Checks if the cached unit test bytecode links against the given compiled code under reduction.
+     *
+     * @param compiledCode bytecode of the code under reduction by binary class name
+     * @return false, if a class, field or method referenced by the unit tests disappeared
+     */
+    public boolean isCompatible(Map<String, byte[]> compiledCode) throws IOException {
+        if (!m_initialized) {
+            return false;
+        }
+        for (String referencedClass : m_referencedSourceClasses) {
+            if (!compiledCode.containsKey(referencedClass)) {
+                return false;
+            }
+        }
+        Map<String, ClassFileInfo> classes = new HashMap<>();
+        for (ClassFileInfo.MemberReference reference : m_referencedSourceMembers) {
+            if (!resolves(reference, reference.owner, compiledCode, classes, new HashSet<>())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean resolves(ClassFileInfo.MemberReference reference, String className, Map<String, byte[]> compiledCode, Map<String, ClassFileInfo> classes, Set<String> visited) throws IOException {
+        if (className == null || !visited.add(className)) {
+            return false;
+        }
+        byte[] code = compiledCode.get(className);
+        if (code == null) {
+            // the class was removed from the code under reduction or the member is inherited from a library
+            return !m_sourceClasses.contains(className) && libraryDeclares(className, reference);
+        }
+        ClassFileInfo info = classes.get(className);
+        if (info == null) {
+            info = new ClassFileInfo(code);
+            classes.put(className, info);
+        }
+        if (info.declares(reference)) {
+            return true;
+        }
+        if ("<init>".equals(reference.name)) {
+            // constructors are not inherited
+            return false;
+        }
+        if (resolves(reference, info.getSuperClassName(), compiledCode, classes, visited)) {
+            return true;
+        }
+        for (String interfaceName : info.getInterfaceNames()) {
+            if (resolves(reference, interfaceName, compiledCode, classes, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean libraryDeclares(String className, ClassFileInfo.MemberReference reference) {
+        return m_libraryMembers.computeIfAbsent(className + "#" + reference.getSignature() + reference.isField, key -> {
+            try {
+                return libraryDeclares(Class.forName(className, false, ClassLoader.getSystemClassLoader()), reference);
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        });
+    }
+
+    private static boolean libraryDeclares(Class<?> clz, ClassFileInfo.MemberReference reference) {
+        if (clz == null) {
+            return false;
+        }
+        if (reference.isField) {
+            for (Field field : clz.getDeclaredFields()) {
+                if (field.getName().equals(reference.name) && descriptor(field.getType()).equals(reference.descriptor)) {
+                    return true;
+                }
+            }
+        } else if ("<init>".equals(reference.name)) {
+            for (Constructor<?> constructor : clz.getDeclaredConstructors()) {
+                if (descriptor(constructor.getParameterTypes(), void.class).equals(reference.descriptor)) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            for (Method method : clz.getDeclaredMethods()) {
+                if (method.getName().equals(reference.name) && descriptor(method.getParameterTypes(), method.getReturnType()).equals(reference.descriptor)) {
+                    return true;
+                }
+            }
+        }
+        if (libraryDeclares(clz.getSuperclass(), reference)) {
+            return true;
+        }
+        for (Class<?> iface : clz.getInterfaces()) {
+            if (libraryDeclares(iface, reference)) {
+                return true;
+            }
+        }
+        // interfaces implicitly inherit the methods of Object
+        return clz.isInterface() && libraryDeclares(Object.class, reference);
+    }
+
+    private static String descriptor(Class<?>[] parameterTypes, Class<?> returnType) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class<?> parameterType : parameterTypes) {
+            sb.append(descriptor(parameterType));
+        }
+        return sb.append(')').append(descriptor(returnType)).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return "[" + descriptor(type.getComponentType());
+        }
+        if (!type.isPrimitive()) {
+            return "L" + type.getName().replace('.', '/') + ";";
+        }
+        if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == byte.class) {
+            return "B";
+        } else if (type == char.class) {
+            return "C";
+        } else if (type == short.class) {
+            return "S";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == float.class) {
+            return "F";
+        }
+        return "D";
+    }
+}
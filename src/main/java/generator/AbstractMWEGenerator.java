@@ -4,34 +4,35 @@ import fragment.ICodeFragment;
 import testexecutor.ITestExecutor;
 import testexecutor.TestExecutorOptions;
 import testexecutor.TestingException;
-import utility.CollectionsUtility;
 import utility.StatsTracker;
 import utility.StatsUtility;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
-import java.util.stream.LongStream;
 
 public abstract class AbstractMWEGenerator {
 
 	protected final TestExecutorOptions m_testExecutorOptions;
-	protected final ExecutorService m_executorService;
+	protected final DDminScheduler m_scheduler;
 	protected List<ICodeFragment> m_fragments;
 	protected AtomicBoolean m_isCancelled = new AtomicBoolean();
 	protected long m_levelStart;
+	// results of the configurations tested by the current DDmin run
+	protected final OutcomeCache m_outcomeCache;
 
 	public AbstractMWEGenerator(TestExecutorOptions options) {
 		m_testExecutorOptions = options;
+		m_outcomeCache = new OutcomeCache(options.getOutcomeCacheSize());
 		if (options.getNumberOfThreads() > 1) {
 			if (options.getCompilationType() == TestExecutorOptions.ECompilationType.COMMAND_LINE) {
 				System.out.println("Concurrent execution and command line are not compatible");
 				System.exit(1);
 			}
-			m_executorService = Executors.newFixedThreadPool(options.getNumberOfThreads());
+			// concurrent DDmin runs of HDDrec share the scheduler, so each of them can run the configured number of tests
+			m_scheduler = new DDminScheduler(options.getMaxConcurrentTests());
 		} else {
-			m_executorService = null;
+			m_scheduler = null;
 		}
 
 		StatsUtility.getStatsTracker().writeRunConfiguration(this.getClass().getSimpleName(), options);
@@ -56,7 +57,7 @@ public abstract class AbstractMWEGenerator {
 				m_levelStart = System.currentTimeMillis();
 				statsTracker.startTrackingDDminExecution(String.valueOf(testNr), activeFragments, activeFragments);
 				m_fragments = runDDMin(executor, m_fragments, activeFragments);
-				logInfo("############## FINISHED NR. " + testNr++ + " in " + StatsUtility.formatDuration(m_levelStart) + " :::: Reduced to " + m_fragments.size() + " out of " + totalFragments + " :::: " + executor.getStatistics() + " ##############");
+				logInfo("############## FINISHED NR. " + testNr++ + " in " + StatsUtility.formatDuration(m_levelStart) + " :::: Reduced to " + m_fragments.size() + " out of " + totalFragments + " :::: " + executor.getStatistics() + ", " + m_outcomeCache.getStatistics() + getSchedulerStatistics() + " ##############");
 				executor.trackDDminCompilerStats();
 				statsTracker.trackDDminExecutionEnd(m_levelStart, m_fragments.size(), m_fragments.size());
 
@@ -89,109 +90,241 @@ public abstract class AbstractMWEGenerator {
 	}
 
 	protected void cleanup() {
-		if (m_executorService != null) {
-			m_executorService.shutdownNow();
+		if (m_scheduler != null) {
+			m_scheduler.shutdownNow();
 		}
 	}
 
 	protected List<ICodeFragment> runDDMin(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments) {
-		Map<String, ITestExecutor.ETestResult> resultMap = new HashMap<>();
+		return runDDMin(executor, initialConfiguration, totalFragments, m_outcomeCache);
+	}
+
+	// concurrent DDmin runs need their own outcome cache
+	protected List<ICodeFragment> runDDMin(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments, OutcomeCache outcomeCache) {
+		// the keys are only valid for the fragments of this run
+		outcomeCache.clear();
+		// identifies the speculative tests of this run
+		Object run = new Object();
 
-		checkPreconditions(executor, initialConfiguration, totalFragments, resultMap);
+		checkPreconditions(executor, initialConfiguration, totalFragments, outcomeCache);
 
+		Configuration configuration = Configuration.of(initialConfiguration);
 		m_fragments = new ArrayList<>(initialConfiguration);
 		int granularity = 2;
-		while (m_fragments.size() >= 2) {
-			List<List<ICodeFragment>> subsets = CollectionsUtility.split(m_fragments, granularity);
+		while (configuration.size() >= 2) {
+			List<Configuration> subsets = configuration.split(granularity);
 			assert subsets.size() == granularity;
 
-			boolean someComplementIsFailing = false;
-			List<Callable<List<ICodeFragment>>> taskList = new ArrayList<>();
-			for (List<ICodeFragment> subset : subsets) {
+			Configuration failingComplement = null;
+			Configuration failingSubset = null;
+			int removedSubsets = 1;
+			if (m_scheduler != null) {
+				BlockingQueue<Future<TestOutcome>> completedTests = new LinkedBlockingQueue<>();
+				List<Future<TestOutcome>> complementTests = submitComplementTests(executor, configuration, subsets, totalFragments, outcomeCache, completedTests, run);
+				List<Future<TestOutcome>> subsetTests = m_testExecutorOptions.isSpeculativeExecution()
+						? submitSpeculativeTests(executor, configuration, subsets, totalFragments, outcomeCache, run)
+						: Collections.emptyList();
+				List<Configuration> failingComplements = awaitFailingComplements(complementTests, completedTests);
 				if (m_isCancelled.get()) {
 					throw new CancellationException("Cancelled by user");
 				}
-				List<ICodeFragment> complement = CollectionsUtility.listMinus(m_fragments, subset);
-
-				if (m_testExecutorOptions.getNumberOfThreads() > 1) {
-					taskList.add(() -> {
-						if (!m_isCancelled.get() && executeTest(executor, complement, totalFragments, resultMap) == ITestExecutor.ETestResult.FAILED) {
-							return complement;
-						}
-						throw new Exception("Test did not fail");
-					});
-				} else {
-					if (executeTest(executor, complement, totalFragments, resultMap) == ITestExecutor.ETestResult.FAILED) {
-						m_fragments = complement;
-						someComplementIsFailing = true;
-						break;
+				if (failingComplements.size() > 1) {
+					// the intersection of the failing complements removes all of their subsets at once
+					Configuration combinedComplement = failingComplements.stream().reduce(Configuration::intersect).get();
+					boolean isCombinedFailing = combinedComplement.size() > 0
+							&& executeTest(executor, combinedComplement.toList(), totalFragments, outcomeCache) == ITestExecutor.ETestResult.FAILED;
+					m_scheduler.recordCombinedStep(isCombinedFailing);
+					if (isCombinedFailing) {
+						failingComplement = combinedComplement;
+						removedSubsets = failingComplements.size();
 					}
 				}
-			}
-			if (m_testExecutorOptions.getNumberOfThreads() > 1) {
-				try {
-					m_fragments = m_executorService.invokeAny(taskList);
-					someComplementIsFailing = true;
-				} catch (ExecutionException e) {
-					// no task completed successfully -> increase granularity
-				} catch (InterruptedException e) {
-					throw new TestingException("Exception occured when running ddmin concurrently.", e);
+				if (failingComplement == null && !failingComplements.isEmpty()) {
+					failingComplement = failingComplements.get(0);
+				}
+				if (failingComplement == null) {
+					failingSubset = getFailingSubset(subsetTests);
+				}
+			} else {
+				for (Configuration subset : subsets) {
+					if (m_isCancelled.get()) {
+						throw new CancellationException("Cancelled by user");
+					}
+					Configuration complement = configuration.minus(subset);
+					if (executeTest(executor, complement.toList(), totalFragments, outcomeCache) == ITestExecutor.ETestResult.FAILED) {
+						failingComplement = complement;
+						break;
+					}
 				}
 			}
 
-			if (someComplementIsFailing) {
-				granularity = Math.max(granularity - 1, 2);
-				logDebug("DDmin: granularity decreased to " + granularity + " / " + m_fragments.size());
+			if (failingComplement != null) {
+				configuration = failingComplement;
+				m_fragments = configuration.toList();
+				granularity = Math.max(granularity - removedSubsets, 2);
+				logDebug("DDmin: granularity decreased to " + granularity + " / " + configuration.size());
+				if (m_scheduler != null) {
+					// speculative tests of the previous configuration are useless now
+					m_scheduler.cancelSpeculation(run);
+				}
+			} else if (failingSubset != null) {
+				configuration = failingSubset;
+				m_fragments = configuration.toList();
+				granularity = 2;
+				logDebug("DDmin: reduced to speculatively tested subset " + configuration.size());
+				m_scheduler.cancelSpeculation(run);
 			} else {
-				if (granularity == m_fragments.size()) {
+				if (granularity == configuration.size()) {
 					break;
 				}
 
-				granularity = Math.min(granularity * 2, m_fragments.size());
-				logDebug("DDmin: granularity increased to " + granularity + " / " + m_fragments.size());
+				granularity = Math.min(granularity * 2, configuration.size());
+				logDebug("DDmin: granularity increased to " + granularity + " / " + configuration.size());
+			}
+		}
+		if (m_scheduler != null) {
+			m_scheduler.cancelSpeculation(run);
+		}
+		return configuration.toList();
+	}
+
+	protected List<Future<TestOutcome>> submitComplementTests(ITestExecutor executor, Configuration configuration, List<Configuration> subsets, int totalFragments, OutcomeCache outcomeCache, Queue<Future<TestOutcome>> completedTests, Object run) {
+		List<Future<TestOutcome>> complementTests = new ArrayList<>(subsets.size());
+		for (Configuration subset : subsets) {
+			Configuration complement = configuration.minus(subset);
+			complementTests.add(m_scheduler.submit(() -> testConfiguration(executor, complement, totalFragments, outcomeCache), DDminScheduler.EPriority.COMPLEMENT, completedTests, run));
+		}
+		return complementTests;
+	}
+
+	// idle threads test the subsets, which replace the configuration if they fail,
+	// and the complements of the next granularity, which are tested if no complement fails
+	protected List<Future<TestOutcome>> submitSpeculativeTests(ITestExecutor executor, Configuration configuration, List<Configuration> subsets, int totalFragments, OutcomeCache outcomeCache, Object run) {
+		List<Future<TestOutcome>> subsetTests = new ArrayList<>(subsets.size());
+		for (Configuration subset : subsets) {
+			subsetTests.add(m_scheduler.submit(() -> testConfiguration(executor, subset, totalFragments, outcomeCache), DDminScheduler.EPriority.SUBSET, null, run));
+		}
+		int nextGranularity = Math.min(subsets.size() * 2, configuration.size());
+		if (nextGranularity > subsets.size()) {
+			for (Configuration subset : configuration.split(nextGranularity)) {
+				Configuration complement = configuration.minus(subset);
+				m_scheduler.submit(() -> testConfiguration(executor, complement, totalFragments, outcomeCache), DDminScheduler.EPriority.NEXT_GRANULARITY, null, run);
+			}
+		}
+		return subsetTests;
+	}
+
+	// returns the first failing complement, or all failing complements if failing complements are combined
+	// the results of all other complements that finished in the meantime are kept in the caches
+	protected List<Configuration> awaitFailingComplements(List<Future<TestOutcome>> complementTests, BlockingQueue<Future<TestOutcome>> completedTests) {
+		boolean isCombiningComplements = m_testExecutorOptions.isCombineFailingComplements();
+		List<Configuration> failingComplements = new ArrayList<>();
+		try {
+			for (int i = 0; i < complementTests.size() && (isCombiningComplements || failingComplements.isEmpty()); i++) {
+				TestOutcome outcome = getOutcome(completedTests.take());
+				if (outcome != null && outcome.isFailing()) {
+					failingComplements.add(outcome.getConfiguration());
+				} else if (outcome != null) {
+					m_scheduler.recordHarvestedTest(outcome.getDurationNanos());
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new TestingException("Exception occured when running ddmin concurrently.", e);
+		} finally {
+			// only tests that did not finish yet are cancelled
+			for (Future<TestOutcome> complementTest : complementTests) {
+				if (!complementTest.isDone() && complementTest.cancel(true)) {
+					m_scheduler.recordCancelledTest();
+				}
+			}
+			Future<TestOutcome> completedTest;
+			while ((completedTest = completedTests.poll()) != null) {
+				TestOutcome outcome = getOutcome(completedTest);
+				if (outcome != null) {
+					m_scheduler.recordHarvestedTest(outcome.getDurationNanos());
+				}
+			}
+		}
+		return failingComplements;
+	}
+
+	// returns a subset whose speculative test already failed, without waiting for the other tests
+	protected Configuration getFailingSubset(List<Future<TestOutcome>> subsetTests) {
+		for (Future<TestOutcome> subsetTest : subsetTests) {
+			if (!subsetTest.isDone()) {
+				continue;
+			}
+			TestOutcome outcome = getOutcome(subsetTest);
+			if (outcome != null && outcome.isFailing()) {
+				return outcome.getConfiguration();
 			}
 		}
-		return m_fragments;
+		return null;
+	}
+
+	// returns null if the test was cancelled or threw an exception, which counts as a test that did not fail
+	private TestOutcome getOutcome(Future<TestOutcome> completedTest) {
+		if (completedTest.isCancelled()) {
+			return null;
+		}
+		try {
+			return completedTest.get();
+		} catch (ExecutionException | InterruptedException e) {
+			return null;
+		}
+	}
+
+	private TestOutcome testConfiguration(ITestExecutor executor, Configuration configuration, int totalFragments, OutcomeCache outcomeCache) {
+		if (m_isCancelled.get()) {
+			return null;
+		}
+		long start = System.nanoTime();
+		ITestExecutor.ETestResult result = executeTest(executor, configuration.toList(), totalFragments, outcomeCache);
+		return new TestOutcome(configuration, result, System.nanoTime() - start);
 	}
 
-	protected void checkPreconditions(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments, Map<String, ITestExecutor.ETestResult> resultMap) {
-		if (executeTest(executor, Collections.emptyList(), totalFragments, resultMap) == ITestExecutor.ETestResult.FAILED
-				|| executeTest(executor, initialConfiguration, totalFragments, resultMap) != ITestExecutor.ETestResult.FAILED) {
+	protected void checkPreconditions(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments, OutcomeCache outcomeCache) {
+		if (executeTest(executor, Collections.emptyList(), totalFragments, outcomeCache) == ITestExecutor.ETestResult.FAILED) {
 			logInfo("Initial testing conditions are not met.");
 			System.exit(1);
 		}
+		if (executeTest(executor, initialConfiguration, totalFragments, outcomeCache) != ITestExecutor.ETestResult.FAILED) {
+			logInfo("Initial testing conditions are not met.");
+			System.exit(1);
+		}
+		executor.calibrateTimeout();
 	}
 
-	protected ITestExecutor.ETestResult executeTest(ITestExecutor executor, List<ICodeFragment> configuration, int totalFragments, Map<String, ITestExecutor.ETestResult> resultMap) {
-		String configurationIdentifier = getConfigurationIdentifier(configuration, totalFragments);
-		ITestExecutor.ETestResult result = resultMap.get(configurationIdentifier);
+	protected ITestExecutor.ETestResult executeTest(ITestExecutor executor, List<ICodeFragment> configuration, int totalFragments, OutcomeCache outcomeCache) {
+		OutcomeCache.Key key = OutcomeCache.getKey(configuration);
+		ITestExecutor.ETestResult result = outcomeCache.get(key);
 		if (result != null) {
 			return result;
 		}
 
-		result = executor.test(configuration);
-		log(":::: " + result + " :::: size: " + configuration.size() + " / " + totalFragments + " :::: " + executor.getStatistics(), result == ITestExecutor.ETestResult.FAILED ? TestExecutorOptions.ELogLevel.INFO : TestExecutorOptions.ELogLevel.DEBUG);
-		resultMap.put(configurationIdentifier, result);
+		result = runTest(executor, configuration, totalFragments);
+		outcomeCache.put(key, result);
 
 		return result;
 	}
 
-	protected String getConfigurationIdentifier(List<ICodeFragment> configuration, int totalFragments) {
-		List<Long> activeFragments = LongStream.range(0, totalFragments)
-				.mapToObj(i -> 0L)
-				.collect(Collectors.toList());
-
-		configuration.forEach(fr -> activeFragments.set((int) fr.getFragmentNumber(), 1L));
-
-		return activeFragments.stream().map(i -> Long.toString(i)).collect(Collectors.joining());
+	protected ITestExecutor.ETestResult runTest(ITestExecutor executor, List<ICodeFragment> configuration, int totalFragments) {
+		ITestExecutor.ETestResult result = executor.test(configuration);
+		log(":::: " + result + " :::: size: " + configuration.size() + " / " + totalFragments + " :::: " + executor.getStatistics(), result == ITestExecutor.ETestResult.FAILED ? TestExecutorOptions.ELogLevel.INFO : TestExecutorOptions.ELogLevel.DEBUG);
+		return result;
 	}
 
 	protected abstract ITestExecutor getTestExecutor();
 
+	protected String getSchedulerStatistics() {
+		return m_scheduler != null ? ", " + m_scheduler.getStatistics() : "";
+	}
+
 	protected void printConfigurationInfo(List<ICodeFragment> minConfig, List<ICodeFragment> fragments) {
-		StringBuilder sb = new StringBuilder();
+		Set<ICodeFragment> minConfigSet = new HashSet<>(minConfig);
+		StringBuilder sb = new StringBuilder(fragments.size());
 		for (ICodeFragment fr : fragments) {
-			if (minConfig.contains(fr)) {
+			if (minConfigSet.contains(fr)) {
 				sb.append(1);
 			} else {
 				sb.append(0);
@@ -219,4 +352,29 @@ public abstract class AbstractMWEGenerator {
 			System.out.println();
 		}
 	}
+
+	// result of a test executed by the scheduler
+	protected static final class TestOutcome {
+		private final Configuration m_configuration;
+		private final ITestExecutor.ETestResult m_result;
+		private final long m_durationNanos;
+
+		private TestOutcome(Configuration configuration, ITestExecutor.ETestResult result, long durationNanos) {
+			m_configuration = configuration;
+			m_result = result;
+			m_durationNanos = durationNanos;
+		}
+
+		public Configuration getConfiguration() {
+			return m_configuration;
+		}
+
+		public boolean isFailing() {
+			return m_result == ITestExecutor.ETestResult.FAILED;
+		}
+
+		public long getDurationNanos() {
+			return m_durationNanos;
+		}
+	}
 }
@@ -0,0 +1,86 @@
+package generator;
+
+import fragment.ICodeFragment;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A configuration of the DDmin algorithm, the subset of the fragments of a run stored as a bitset.
+ * Every fragment of the run is identified by its dense ordinal, its position in the initial configuration,
+ * so complements are computed word by word and typed fragment lists are only created for the test executor.
+ */
+public final class Configuration {
+
+	// all fragments of the run, indexed by their ordinal
+	private final ICodeFragment[] m_fragments;
+	private final BitSet m_bits;
+	private final int m_size;
+
+	private Configuration(ICodeFragment[] fragments, BitSet bits) {
+		m_fragments = fragments;
+		m_bits = bits;
+		m_size = bits.cardinality();
+	}
+
+	// the configuration containing all of the given fragments
+	public static Configuration of(List<ICodeFragment> fragments) {
+		BitSet bits = new BitSet(fragments.size());
+		bits.set(0, fragments.size());
+		return new Configuration(fragments.toArray(new ICodeFragment[0]), bits);
+	}
+
+	public int size() {
+		return m_size;
+	}
+
+	/*
+        Split the configuration into N subsets of consecutive fragments
+        return the list of subsets
+     */
+	public List<Configuration> split(int granularity) {
+		List<Configuration> subsets = new ArrayList<>(granularity);
+		int ordinal = m_bits.nextSetBit(0);
+		int start = 0;
+		for (int i = 0; i < granularity; i++) {
+			int subsetLength = (int) ((m_size - start) / (float) (granularity - i) + 0.5f);
+			BitSet subset = new BitSet(m_fragments.length);
+			for (int j = 0; j < subsetLength; j++) {
+				subset.set(ordinal);
+				ordinal = m_bits.nextSetBit(ordinal + 1);
+			}
+			subsets.add(new Configuration(m_fragments, subset));
+			start += subsetLength;
+		}
+
+		assert subsets.size() == granularity;
+		for (Configuration subset : subsets) {
+			assert subset.size() > 0;
+		}
+		return subsets;
+	}
+
+	// all fragments of this configuration that are not in the other configuration
+	public Configuration minus(Configuration other) {
+		BitSet bits = (BitSet) m_bits.clone();
+		bits.andNot(other.m_bits);
+		return new Configuration(m_fragments, bits);
+	}
+
+	// all fragments that are in both configurations
+	public Configuration intersect(Configuration other) {
+		BitSet bits = (BitSet) m_bits.clone();
+		bits.and(other.m_bits);
+		return new Configuration(m_fragments, bits);
+	}
+
+	// the fragments of the configuration in the order of the initial configuration
+	public List<ICodeFragment> toList() {
+		List<ICodeFragment> list = new ArrayList<>(m_size);
+		for (int ordinal = m_bits.nextSetBit(0); ordinal >= 0; ordinal = m_bits.nextSetBit(ordinal + 1)) {
+			list.add(m_fragments[ordinal]);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,132 @@
+package generator;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the tests of a concurrent DDmin run on a fixed number of threads, ordered by their priority.
+ * The complements of the current granularity are always executed first. Speculative tests, e.g. for the subsets or the
+ * next granularity, are only started by threads that would otherwise be idle and are cancelled once the configuration
+ * they were derived from is reduced.
+ */
+public class DDminScheduler {
+
+	// in the order of execution
+	public enum EPriority {
+		COMPLEMENT,
+		SUBSET,
+		NEXT_GRANULARITY;
+
+		public boolean isSpeculative() {
+			return this != COMPLEMENT;
+		}
+	}
+
+	private final ThreadPoolExecutor m_executor;
+	private final AtomicLong m_sequence = new AtomicLong();
+	private final Set<Task<?>> m_speculativeTasks = ConcurrentHashMap.newKeySet();
+	private final AtomicLong m_speculativeTests = new AtomicLong();
+	private final AtomicLong m_cancelledSpeculativeTests = new AtomicLong();
+	private final AtomicLong m_harvestedTests = new AtomicLong();
+	private final AtomicLong m_harvestedNanos = new AtomicLong();
+	private final AtomicLong m_cancelledTests = new AtomicLong();
+	private final AtomicLong m_combinedSteps = new AtomicLong();
+	private final AtomicLong m_failedCombinedSteps = new AtomicLong();
+
+	public DDminScheduler(int numberOfThreads) {
+		m_executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+	}
+
+	// the future is added to the completion queue once it is done, if the queue is not null
+	// the run identifies the DDmin run that submitted the test, several runs can share the scheduler
+	public <T> Future<T> submit(Callable<T> callable, EPriority priority, Queue<Future<T>> completionQueue, Object run) {
+		Task<T> task = new Task<>(callable, priority, m_sequence.getAndIncrement(), completionQueue, run);
+		if (priority.isSpeculative()) {
+			m_speculativeTests.incrementAndGet();
+			m_speculativeTasks.add(task);
+		}
+		m_executor.execute(task);
+		return task;
+	}
+
+	// cancels all speculative tests, running tests are interrupted and stop at the next compilation phase or in their test run
+	public void cancelSpeculation(Object run) {
+		for (Task<?> task : m_speculativeTasks) {
+			if (task.m_run != run) {
+				continue;
+			}
+			if (task.cancel(true)) {
+				m_cancelledSpeculativeTests.incrementAndGet();
+			}
+			m_speculativeTasks.remove(task);
+		}
+		m_executor.purge();
+	}
+
+	// a complement test that finished without failing, its result would have been lost with invokeAny
+	public void recordHarvestedTest(long durationNanos) {
+		m_harvestedTests.incrementAndGet();
+		m_harvestedNanos.addAndGet(durationNanos);
+	}
+
+	// a complement test that was cancelled after another complement failed
+	public void recordCancelledTest() {
+		m_cancelledTests.incrementAndGet();
+	}
+
+	// an attempt to remove the subsets of several failing complements at once
+	public void recordCombinedStep(boolean isFailing) {
+		if (isFailing) {
+			m_combinedSteps.incrementAndGet();
+		} else {
+			m_failedCombinedSteps.incrementAndGet();
+		}
+	}
+
+	public void shutdownNow() {
+		m_executor.shutdownNow();
+	}
+
+	public String getStatistics() {
+		return String.format("harvested tests: %d (%ds of testing), cancelled tests: %d, speculative tests: %d, cancelled speculative tests: %d, combined steps: %d, failed combined steps: %d",
+				m_harvestedTests.get(), TimeUnit.NANOSECONDS.toSeconds(m_harvestedNanos.get()), m_cancelledTests.get(), m_speculativeTests.get(), m_cancelledSpeculativeTests.get(),
+				m_combinedSteps.get(), m_failedCombinedSteps.get());
+	}
+
+	private class Task<T> extends FutureTask<T> implements Comparable<Task<?>> {
+
+		private final EPriority m_priority;
+		private final long m_sequenceNumber;
+		private final Queue<Future<T>> m_completionQueue;
+		private final Object m_run;
+
+		private Task(Callable<T> callable, EPriority priority, long sequenceNumber, Queue<Future<T>> completionQueue, Object run) {
+			super(callable);
+			m_priority = priority;
+			m_sequenceNumber = sequenceNumber;
+			m_completionQueue = completionQueue;
+			m_run = run;
+		}
+
+		@Override
+		protected void done() {
+			if (m_priority.isSpeculative()) {
+				m_speculativeTasks.remove(this);
+			}
+			if (m_completionQueue != null) {
+				m_completionQueue.add(this);
+			}
+		}
+
+		@Override
+		public int compareTo(Task<?> other) {
+			int result = m_priority.compareTo(other.m_priority);
+			if (result == 0) {
+				result = Long.compare(m_sequenceNumber, other.m_sequenceNumber);
+			}
+			return result;
+		}
+	}
+}
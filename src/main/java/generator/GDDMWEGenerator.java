@@ -54,8 +54,7 @@ public class GDDMWEGenerator extends AbstractMWEGenerator {
                     List<ICodeFragment> minConfig = runDDMin(executor, m_activeFragments, m_activeFragments.size());
                     logInfo("Level " + testNr + "-" + m_level + " took " + StatsUtility.formatDuration(m_levelStart));
                     printConfigurationInfo(minConfig, m_activeFragments);
-                    executor.addFixedFragments(minConfig);
-                    executor.addDiscardedFragments(CollectionsUtility.listMinus(m_activeFragments, minConfig));
+                    executor.completeLevel(minConfig, CollectionsUtility.listMinus(m_activeFragments, minConfig));
                     long numberOfRemainingFragments = executor.getNumberOfRemainingFragments();
                     logInfo("############## After level " + testNr + "-" + m_level + " there are " + numberOfRemainingFragments + " / " + numberOfFragments + " fragments left :::: " + executor.getStatistics());
                     executor.trackDDminCompilerStats();
@@ -66,7 +65,7 @@ public class GDDMWEGenerator extends AbstractMWEGenerator {
                 logInfo("Recreating result in testingoutput folder...");
                 executor.recreateCode(Collections.emptyList());
                 int numberOfFragmentsLeft = executor.getNumberOfRemainingFragments();
-                logInfo("############## FINISHED NR. " + testNr++ + " in " + StatsUtility.formatDuration(runStart) + " :::: Reduced to " + numberOfFragmentsLeft + " out of " + numberOfFragments + " :::: " + executor.getStatistics() + " ##############");
+                logInfo("############## FINISHED NR. " + testNr++ + " in " + StatsUtility.formatDuration(runStart) + " :::: Reduced to " + numberOfFragmentsLeft + " out of " + numberOfFragments + " :::: " + executor.getStatistics() + getSchedulerStatistics() + " ##############");
                 if (!m_testExecutorOptions.isMultipleRuns() || numberOfFixedFragments == numberOfFragmentsLeft) {
                     break;
                 }
@@ -81,8 +80,7 @@ public class GDDMWEGenerator extends AbstractMWEGenerator {
         } catch (CancellationException e) {
             logInfo("Execution was manually cancelled. Recreate intermediate result in testingoutput folder...");
             if (m_fragments != null && !m_fragments.isEmpty()) {
-                executor.addFixedFragments(m_fragments);
-                executor.addDiscardedFragments(CollectionsUtility.listMinus(m_activeFragments, m_fragments));
+                executor.completeLevel(m_fragments, CollectionsUtility.listMinus(m_activeFragments, m_fragments));
                 long numberOfRemainingFragments = executor.getNumberOfRemainingFragments();
                 executor.trackDDminCompilerStats();
                 statsTracker.trackDDminExecutionEnd(m_levelStart, m_fragments.size(), numberOfRemainingFragments);
@@ -91,23 +89,24 @@ public class GDDMWEGenerator extends AbstractMWEGenerator {
             }
             throw e;
         } finally {
+            executor.close();
             cleanup();
         }
     }
 
 
     @Override
-    protected ITestExecutor.ETestResult executeTest(ITestExecutor executor, List<ICodeFragment> configuration, int totalFragments, Map<String, ITestExecutor.ETestResult> resultMap) {
+    protected ITestExecutor.ETestResult runTest(ITestExecutor executor, List<ICodeFragment> configuration, int totalFragments) {
         ITestExecutor.ETestResult result = executor.test(configuration);
         log(":::: " + result + " :::: level: " + m_level + " :::: size: " + configuration.size() + " / " + totalFragments + " :::: " + executor.getStatistics(), result == ITestExecutor.ETestResult.FAILED ? TestExecutorOptions.ELogLevel.INFO : TestExecutorOptions.ELogLevel.DEBUG);
         return result;
     }
 
     @Override
-    protected void checkPreconditions(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments, Map<String, ITestExecutor.ETestResult> resultMap) {
+    protected void checkPreconditions(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments, OutcomeCache outcomeCache) {
         // only check precondition initially
         if (m_level == 0) {
-            super.checkPreconditions(executor, initialConfiguration, totalFragments, resultMap);
+            super.checkPreconditions(executor, initialConfiguration, totalFragments, outcomeCache);
         }
     }
 }
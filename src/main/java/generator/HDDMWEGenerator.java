@@ -70,7 +70,7 @@ public class HDDMWEGenerator extends AbstractMWEGenerator {
 				logInfo("Recreating result in testingoutput folder...");
 				executor.recreateCode(m_fragments);
 				int numberOfFragmentsLeft = executor.getFixedFragments().size();
-				logInfo("############## FINISHED NR. " + m_testNr++ + " in " + StatsUtility.formatDuration(runStart) + " :::: Reduced to " + numberOfFragmentsLeft + " out of " + m_initialNumberOfFragments + " :::: " + executor.getStatistics() + " ##############");
+				logInfo("############## FINISHED NR. " + m_testNr++ + " in " + StatsUtility.formatDuration(runStart) + " :::: Reduced to " + numberOfFragmentsLeft + " out of " + m_initialNumberOfFragments + " :::: " + executor.getStatistics() + getSchedulerStatistics() + " ##############");
 				if (!m_testExecutorOptions.isMultipleRuns() || numberOfFixedFragments == numberOfFragmentsLeft) {
 					break;
 				}
@@ -107,17 +107,17 @@ public class HDDMWEGenerator extends AbstractMWEGenerator {
 	}
 
 	@Override
-	protected ITestExecutor.ETestResult executeTest(ITestExecutor executor, List<ICodeFragment> configuration, int totalFragments, Map<String, ITestExecutor.ETestResult> resultMap) {
+	protected ITestExecutor.ETestResult runTest(ITestExecutor executor, List<ICodeFragment> configuration, int totalFragments) {
 		ITestExecutor.ETestResult result = executor.test(configuration);
 		log(":::: " + result + " :::: level: " + m_testNr + "-" + m_level + " / " + m_maxLevel + " :::: size: " + configuration.size() + " / " + totalFragments + " :::: " + executor.getStatistics(), result == ITestExecutor.ETestResult.FAILED ? TestExecutorOptions.ELogLevel.INFO : TestExecutorOptions.ELogLevel.DEBUG);
 		return result;
 	}
 
 	@Override
-	protected void checkPreconditions(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments, Map<String, ITestExecutor.ETestResult> resultMap) {
+	protected void checkPreconditions(ITestExecutor executor, List<ICodeFragment> initialConfiguration, int totalFragments, OutcomeCache outcomeCache) {
 		// only check precondition of initial level
 		if (m_level == 0) {
-			super.checkPreconditions(executor, initialConfiguration, totalFragments, resultMap);
+			super.checkPreconditions(executor, initialConfiguration, totalFragments, outcomeCache);
 		}
 	}
 
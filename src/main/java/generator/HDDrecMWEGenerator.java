@@ -2,6 +2,7 @@ package generator;
 
 import fragment.ICodeFragment;
 import fragment.IHierarchicalCodeFragment;
+import testexecutor.ITestExecutor;
 import testexecutor.TestExecutorOptions;
 import testexecutor.hdd.HDDTestExecutor;
 import testexecutor.hdd.HDDrecTestExecutor;
@@ -14,9 +15,18 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
 
 public class HDDrecMWEGenerator extends HDDMWEGenerator {
 
+	// number of times a concurrent DDmin run is repeated if its result no longer fails
+	private static final int MAX_MERGE_RETRIES = 2;
+
+	// merges the results of concurrent DDmin runs one at a time
+	private final Object m_mergeLock = new Object();
+
 	public HDDrecMWEGenerator(TestExecutorOptions options) {
 		super(options);
 	}
@@ -34,6 +44,9 @@ public class HDDrecMWEGenerator extends HDDMWEGenerator {
 				m_level = 0;
 				long runStart = System.currentTimeMillis();
 				logInfo("############## RUNNING TEST NR. " + m_testNr + " ##############");
+				if (m_testExecutorOptions.getSubtreeParallelism() > 1) {
+					reduceSubtreesConcurrently(statsTracker, executor);
+				}
 				while (!executor.getQueue().isEmpty()) {
 					m_levelStart = System.currentTimeMillis();
 					IHierarchicalCodeFragment currentFragment = executor.getQueue().poll();
@@ -62,7 +75,7 @@ public class HDDrecMWEGenerator extends HDDMWEGenerator {
 				logInfo("Recreating result in testingoutput folder...");
 				executor.recreateCode(Collections.emptyList());
 				int numberOfFragmentsLeft = executor.getFixedFragments().size();
-				logInfo("############## FINISHED NR. " + m_testNr++ + " in " + StatsUtility.formatDuration(runStart) + " :::: Reduced to " + numberOfFragmentsLeft + " out of " + m_initialNumberOfFragments + " :::: " + executor.getStatistics() + " ##############");
+				logInfo("############## FINISHED NR. " + m_testNr++ + " in " + StatsUtility.formatDuration(runStart) + " :::: Reduced to " + numberOfFragmentsLeft + " out of " + m_initialNumberOfFragments + " :::: " + executor.getStatistics() + getSchedulerStatistics() + " ##############");
 				if (!m_testExecutorOptions.isMultipleRuns() || numberOfFixedFragments == numberOfFragmentsLeft) {
 					break;
 				}
@@ -80,6 +93,102 @@ public class HDDrecMWEGenerator extends HDDMWEGenerator {
 		}
 	}
 
+	// runs DDmin on the children of several queued fragments at once, starting with the queued file roots
+	protected void reduceSubtreesConcurrently(StatsTracker statsTracker, HDDrecTestExecutor executor) {
+		ForkJoinPool pool = new ForkJoinPool(m_testExecutorOptions.getSubtreeParallelism());
+		try {
+			List<SubtreeReduction> reductions = executor.getQueue().stream()
+					.map(fr -> new SubtreeReduction(statsTracker, executor, fr))
+					.collect(Collectors.toList());
+			pool.invoke(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(reductions);
+				}
+			});
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	// returns the fixed children of the fragment, whose own children are reduced next
+	protected List<IHierarchicalCodeFragment> reduceSubtree(StatsTracker statsTracker, HDDrecTestExecutor executor, IHierarchicalCodeFragment currentFragment) {
+		List<ICodeFragment> fragments = CollectionsUtility.castList(currentFragment.getChildren(), ICodeFragment.class);
+		long levelStart = System.currentTimeMillis();
+		long totalNumberOfFragments;
+		synchronized (m_mergeLock) {
+			// the fragment is activated before it leaves the queue, so concurrent renders never omit its subtree
+			executor.activate(currentFragment);
+			if (!executor.getQueue().remove(currentFragment)) {
+				executor.deactivate(currentFragment);
+				return Collections.emptyList();
+			}
+			if (fragments.isEmpty()) {
+				executor.deactivate(currentFragment);
+				return Collections.emptyList();
+			}
+			totalNumberOfFragments = calculateTotalNumberOfFragements(executor, executor.getActiveFragments());
+		}
+		ITestExecutor subtreeExecutor = executor.forSubtree(currentFragment);
+		try {
+			int retries = 0;
+			while (true) {
+				List<ICodeFragment> minConfig = runDDMin(subtreeExecutor, fragments, fragments.size(), new OutcomeCache(m_testExecutorOptions.getOutcomeCacheSize()));
+				synchronized (m_mergeLock) {
+					// other subtrees might have been reduced in the meantime, so the result is only merged if it still fails
+					if (subtreeExecutor.test(minConfig) != ITestExecutor.ETestResult.FAILED) {
+						if (retries < MAX_MERGE_RETRIES) {
+							retries++;
+							logInfo("Result of a concurrent DDmin run no longer fails, repeating the run with " + fragments.size() + " fragments");
+							continue;
+						}
+						// the other subtrees were reduced while all of these fragments were present, so keeping them is safe
+						logInfo("Result of a concurrent DDmin run still does not fail after " + retries + " repetitions, keeping all " + fragments.size() + " fragments");
+						minConfig = fragments;
+					}
+					// the stats tracker writes one level at a time, the level is tracked with the values from its start
+					statsTracker.startTrackingDDminExecution(m_testNr + "-" + m_level, fragments.size(), totalNumberOfFragments);
+					logInfo("Level " + m_testNr + "-" + m_level + " took " + StatsUtility.formatDuration(levelStart));
+					printConfigurationInfo(minConfig, fragments);
+					executor.addFixedFragments(minConfig);
+					executor.getQueue().addAll(CollectionsUtility.castList(minConfig, IHierarchicalCodeFragment.class));
+					executor.deactivate(currentFragment);
+
+					// the subtrees of the other concurrent DDmin runs are still part of the code
+					long numberOfRemainingFragments = calculateTotalNumberOfFragements(executor, executor.getActiveFragments());
+					logInfo("############## After level " + m_testNr + "-" + m_level + " there are " + numberOfRemainingFragments + " / " + m_initialNumberOfFragments + " fragments left :::: " + executor.getStatistics());
+					executor.trackDDminCompilerStats();
+					statsTracker.trackDDminExecutionEnd(levelStart, minConfig.size(), numberOfRemainingFragments);
+					m_level++;
+					return CollectionsUtility.castList(minConfig, IHierarchicalCodeFragment.class);
+				}
+			}
+		} finally {
+			executor.deactivate(currentFragment);
+		}
+	}
+
+	private class SubtreeReduction extends RecursiveAction {
+
+		private final StatsTracker m_statsTracker;
+		private final HDDrecTestExecutor m_executor;
+		private final IHierarchicalCodeFragment m_fragment;
+
+		private SubtreeReduction(StatsTracker statsTracker, HDDrecTestExecutor executor, IHierarchicalCodeFragment fragment) {
+			m_statsTracker = statsTracker;
+			m_executor = executor;
+			m_fragment = fragment;
+		}
+
+		@Override
+		protected void compute() {
+			// the subtrees of the fixed children are independent of each other
+			invokeAll(reduceSubtree(m_statsTracker, m_executor, m_fragment).stream()
+					.map(fr -> new SubtreeReduction(m_statsTracker, m_executor, fr))
+					.collect(Collectors.toList()));
+		}
+	}
+
 	@Override
 	protected long calculateTotalNumberOfFragements(HDDTestExecutor executor0, List<ICodeFragment> activeFragments) {
 		HDDrecTestExecutor executor = (HDDrecTestExecutor) executor0;
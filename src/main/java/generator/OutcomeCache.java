@@ -0,0 +1,107 @@
+package generator;
+
+import fragment.ICodeFragment;
+import testexecutor.ITestExecutor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Test results of the configurations tested by the DDmin algorithm.
+ * A configuration is keyed by a 128 bit Zobrist hash, the XOR of two pseudo random 64 bit values per fragment number,
+ * so keys have a constant size independent of the number of fragments.
+ * The cache is shared between all threads and evicts the least recently used results beyond its maximum size.
+ */
+public class OutcomeCache {
+
+	private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+	private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+
+	private final int m_maxEntries;
+	private final Map<Key, ITestExecutor.ETestResult> m_entries;
+	private long m_hits = 0;
+	private long m_misses = 0;
+	private long m_evictions = 0;
+
+	public static final class Key {
+		private final long m_high;
+		private final long m_low;
+
+		private Key(long high, long low) {
+			m_high = high;
+			m_low = low;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return m_high == key.m_high && m_low == key.m_low;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (m_low ^ m_low >>> 32);
+		}
+	}
+
+	public OutcomeCache(int maxEntries) {
+		m_maxEntries = maxEntries;
+		m_entries = new LinkedHashMap<Key, ITestExecutor.ETestResult>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, ITestExecutor.ETestResult> eldest) {
+				if (size() > m_maxEntries) {
+					m_evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public static Key getKey(Collection<ICodeFragment> configuration) {
+		long high = 0;
+		long low = 0;
+		for (ICodeFragment fragment : configuration) {
+			high ^= mix(fragment.getFragmentNumber() + SEED_HIGH);
+			low ^= mix(fragment.getFragmentNumber() * SEED_LOW + SEED_HIGH);
+		}
+		return new Key(high, low);
+	}
+
+	// finalizer of SplitMix64
+	private static long mix(long z) {
+		z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+		return z ^ z >>> 31;
+	}
+
+	// returns null, if the configuration was not tested yet
+	public synchronized ITestExecutor.ETestResult get(Key key) {
+		ITestExecutor.ETestResult result = m_entries.get(key);
+		if (result != null) {
+			m_hits++;
+		} else {
+			m_misses++;
+		}
+		return result;
+	}
+
+	public synchronized void put(Key key, ITestExecutor.ETestResult result) {
+		m_entries.put(key, result);
+	}
+
+	public synchronized void clear() {
+		m_entries.clear();
+	}
+
+	public synchronized String getStatistics() {
+		return String.format("outcome cache hits: %d, misses: %d, evictions: %d, size: %d", m_hits, m_misses, m_evictions, m_entries.size());
+	}
+}
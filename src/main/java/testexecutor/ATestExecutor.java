@@ -1,6 +1,11 @@
 package testexecutor;
 
-import compiler.InMemoryJavaCompiler;
+import compiler.CompilationCancelledException;
+import compiler.CompilationSession;
+import compiler.ICompiler;
+import compiler.IncrementalCompilationCache;
+import compiler.IncrementalJavaCompiler;
+import compiler.UnitTestCompilationCache;
 import fragment.ICodeFragment;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
@@ -14,6 +19,7 @@ import org.eclipse.jface.text.Region;
 import org.eclipse.text.edits.TextEdit;
 import org.mdkt.compiler.CompilationException;
 import utility.FileUtility;
+import utility.JavaParserUtility;
 import utility.SlicerUtility;
 import utility.StatsTracker;
 import utility.StatsUtility;
@@ -27,10 +33,13 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -43,10 +52,48 @@ public abstract class ATestExecutor implements ITestExecutor {
 	protected final AtomicInteger m_runtimeErrors = new AtomicInteger();
 	protected final AtomicInteger m_failedRuns = new AtomicInteger();
 	protected final AtomicInteger m_okRuns = new AtomicInteger();
+	protected final AtomicInteger m_cachedUnitTestRuns = new AtomicInteger();
+	protected final AtomicInteger m_unitTestCacheMisses = new AtomicInteger();
+	protected final AtomicInteger m_parseRejections = new AtomicInteger();
+	protected final AtomicInteger m_compiledUnits = new AtomicInteger();
+	protected final AtomicInteger m_reusedUnits = new AtomicInteger();
+	protected final AtomicInteger m_timeouts = new AtomicInteger();
 	private static final String JAVA_VERSION = "1.8";
+	private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+	// timeout of a single unit test run, calibrated by the initial failing test
+	private volatile long m_testTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+	// set when the initial failing test was executed, results are only taken from the persistent cache afterwards
+	private volatile boolean m_baselineMeasured = false;
+	// duration of the last unit test run without rendering and compilation, -1 if no unit test was run yet
+	private volatile long m_lastUnitTestMillis = -1;
+	// whether the last test of the current thread timed out
+	private final ThreadLocal<Boolean> m_timedOut = ThreadLocal.withInitial(() -> false);
+	// results of earlier runs, opened with the first lookup
+	private volatile PersistentOutcomeCache m_persistentOutcomeCache;
+	// results of the programs tested in this run, null if tests are not deduplicated by their rendered sources
+	private final RenderedSourceCache m_renderedSourceCache;
+	// hash of the unit tests and the options that decide about the result of a test
+	private volatile byte[] m_oracleDigest;
+	// signature of the initial failing test, if failures are matched by signature
+	private volatile FailureSignature m_failureSignature;
+	// every worker thread keeps its own compiler session alive across all tests
+	private final ThreadLocal<CompilationSession> m_compilationSessions = ThreadLocal.withInitial(CompilationSession::new);
+	// the unit test sources are read once per initialization of the testing source folder
+	private volatile UnitTestCompilationCache m_unitTestCompilationCache;
+	// bytecode of the compilation units is shared between all worker threads
+	private final IncrementalCompilationCache m_incrementalCompilationCache = new IncrementalCompilationCache();
+	// runs the in memory tests of all worker threads
+	private final TestRunner m_testRunner;
+	// runs the in memory tests on the JUnit platform, null if the test method is invoked directly
+	private final UnitTestLauncher m_unitTestLauncher;
+	// worker JVMs of the PROCESS compilation type, started with the first test
+	private volatile TestWorkerPool m_workerPool;
 
 	protected ATestExecutor(TestExecutorOptions options) {
 		m_options = options;
+		m_testRunner = new TestRunner(options.getMaxConcurrentTests());
+		m_unitTestLauncher = options.isJUnitLauncher() ? new UnitTestLauncher() : null;
+		m_renderedSourceCache = options.isRenderedSourceCache() ? new RenderedSourceCache(options.getOutcomeCacheSize()) : null;
 
 		System.out.println("Using executor " + this.getClass().getSimpleName() + " with executor options:\n" + options.toString());
 	}
@@ -121,9 +168,60 @@ public abstract class ATestExecutor implements ITestExecutor {
 
 	@Override
 	public ETestResult test(List<ICodeFragment> fragments) {
+		if (m_renderedSourceCache == null) {
+			return testPersistent(fragments, null, null);
+		}
+		// different fragment selections often render to the same program, which is only tested once
+		Map<String, String> files = mapFragmentsToFiles(fragments);
+		byte[] outcomeKey = getOutcomeKey(files);
+		m_timedOut.set(false);
+		ETestResult result = m_renderedSourceCache.test(outcomeKey, () -> testPersistent(fragments, files, outcomeKey));
+		if (m_timedOut.get()) {
+			m_renderedSourceCache.remove(outcomeKey);
+		}
+		return result;
+	}
+
+	private ETestResult testPersistent(List<ICodeFragment> fragments, Map<String, String> files, byte[] outcomeKey) {
+		// the initial failing test is always executed to measure it and capture its failure
+		if (m_options.isPersistentOutcomeCache() && m_baselineMeasured) {
+			if (files == null) {
+				files = mapFragmentsToFiles(fragments);
+				outcomeKey = getOutcomeKey(files);
+			}
+			ETestResult result = getPersistentOutcomeCache().get(outcomeKey);
+			if (result != null) {
+				return result;
+			}
+		} else {
+			outcomeKey = null;
+		}
+		m_timedOut.set(false);
+		ETestResult result = testConfiguration(fragments, files);
+		// results of timed out tests depend on the timeout of this run
+		if (outcomeKey != null && !m_timedOut.get()) {
+			getPersistentOutcomeCache().put(outcomeKey, result);
+		}
+		return result;
+	}
+
+	protected ETestResult testConfiguration(List<ICodeFragment> fragments, Map<String, String> files) {
+		if (getOptions().isSyntaxPreCheck()) {
+			if (files == null) {
+				files = mapFragmentsToFiles(fragments);
+			}
+			// configurations that do not parse are rejected without invoking the compiler
+			if (files.values().stream().anyMatch(JavaParserUtility::hasSyntaxErrors)) {
+				m_parseRejections.incrementAndGet();
+				return ETestResult.ERROR_COMPILATION;
+			}
+		}
 		switch (getOptions().getCompilationType().toString()) {
 			case "IN_MEMORY":
-				return testInMemory(fragments);
+			case "IN_MEMORY_ECJ":
+				return testInMemory(files != null ? files : mapFragmentsToFiles(fragments));
+			case "PROCESS":
+				return testInProcess(files != null ? files : mapFragmentsToFiles(fragments));
 			case "COMMAND_LINE":
 				return testWithCommandLine(fragments);
 			default:
@@ -131,6 +229,87 @@ public abstract class ATestExecutor implements ITestExecutor {
 		}
 	}
 
+	// hash of the rendered files, the unit tests and everything that decides about the result of a test
+	protected byte[] getOutcomeKey(Map<String, String> files) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new TestingException("Unable to hash configuration", e);
+		}
+		digest.update(getOracleDigest());
+		for (Map.Entry<String, String> file : new TreeMap<>(files).entrySet()) {
+			digest.update(file.getKey().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(file.getValue().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		return Arrays.copyOf(digest.digest(), PersistentOutcomeCache.KEY_LENGTH);
+	}
+
+	private byte[] getOracleDigest() {
+		byte[] oracleDigest = m_oracleDigest;
+		if (oracleDigest == null) {
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				String oracle = m_options.getUnitTestMethod() + "\0" + m_options.getExpectedResult() + "\0" + m_options.getCompilationType()
+						+ "\0" + m_options.isFailureSignature() + "\0" + m_options.getFailureMessagePattern() + "\0" + m_options.getFailureSignatureFrames()
+						+ "\0" + m_options.isJUnitLauncher();
+				digest.update(oracle.getBytes(StandardCharsets.UTF_8));
+				for (Map.Entry<String, String> unitTest : new TreeMap<>(getUnitTestCompilationCache().getSources()).entrySet()) {
+					digest.update(unitTest.getKey().getBytes(StandardCharsets.UTF_8));
+					digest.update((byte) 0);
+					digest.update(unitTest.getValue().getBytes(StandardCharsets.UTF_8));
+					digest.update((byte) 0);
+				}
+				oracleDigest = digest.digest();
+			} catch (NoSuchAlgorithmException | IOException e) {
+				throw new TestingException("Unable to hash unit tests", e);
+			}
+			m_oracleDigest = oracleDigest;
+		}
+		return oracleDigest;
+	}
+
+	protected PersistentOutcomeCache getPersistentOutcomeCache() {
+		PersistentOutcomeCache cache = m_persistentOutcomeCache;
+		if (cache == null) {
+			synchronized (this) {
+				cache = m_persistentOutcomeCache;
+				if (cache == null) {
+					try {
+						cache = new PersistentOutcomeCache(getOutcomeCachePath());
+					} catch (IOException e) {
+						throw new TestingException("Unable to open outcome cache", e);
+					}
+					System.out.println("Loaded " + cache.getLoadedResults() + " results from outcome cache " + getOutcomeCachePath());
+					m_persistentOutcomeCache = cache;
+				}
+			}
+		}
+		return cache;
+	}
+
+	protected Path getOutcomeCachePath() {
+		String dir = System.getProperty("user.dir");
+		return FileSystems.getDefault().getPath(dir + File.separator + "outcomecache.bin");
+	}
+
+	@Override
+	public void calibrateTimeout() {
+		m_baselineMeasured = true;
+		long baselineMillis = m_lastUnitTestMillis;
+		if (m_options.getTimeoutMultiplier() <= 0) {
+			return;
+		}
+		if (baselineMillis < 0) {
+			System.out.println("The unit test of the initial failing test was not run, using a test timeout of " + m_testTimeoutMillis + "ms");
+			return;
+		}
+		m_testTimeoutMillis = Math.max(m_options.getMinimumTimeoutMillis(), (long) (baselineMillis * m_options.getTimeoutMultiplier()));
+		System.out.println("Unit test of the initial failing test took " + baselineMillis + "ms, using a test timeout of " + m_testTimeoutMillis + "ms");
+	}
+
 	public void recreateCode(List<ICodeFragment> fragments) {
 		Path testOutputPath = getTestOutputPath();
 		try {
@@ -192,40 +371,246 @@ public abstract class ATestExecutor implements ITestExecutor {
 		return unitTest;
 	}
 
-	protected ETestResult testInMemory(List<ICodeFragment> fragments) {
-		InMemoryJavaCompiler compiler = InMemoryJavaCompiler
-				.newInstance()
-				.ignoreWarnings();
-		String[] unitTestName = getOptions().getUnitTestMethod().split("#");
+	protected ETestResult testInMemory(Map<String, String> files) {
+		Map<String, String> sources = new HashMap<>();
+		UnitTestCompilationCache unitTestCache;
+		try {
+			unitTestCache = getUnitTestCompilationCache();
+			for (Map.Entry<String, String> file : files.entrySet()) {
+				sources.put(FileUtility.fileNameToClassName(file.getKey()), file.getValue());
+			}
+		} catch (Exception e) {
+			throw new TestingException("Error while adding files", e);
+		}
+
+		m_compilerCalls.incrementAndGet();
+		if (m_options.isIncrementalCompilation()) {
+			return testIncremental(sources, unitTestCache);
+		}
+		if (m_options.isCacheUnitTestCompilation() && unitTestCache.isInitialized() && !sources.isEmpty()) {
+			ETestResult result = testWithCachedUnitTests(sources, unitTestCache);
+			// a failing result is confirmed by a full compilation, as the unit tests might depend on inlined constants
+			if (result != null && result != ETestResult.FAILED) {
+				m_cachedUnitTestRuns.incrementAndGet();
+				return trackResult(result);
+			}
+		}
 
+		ICompiler compiler = newInMemoryCompiler();
 		try {
-			Path unitTestFolder = FileSystems.getDefault().getPath(getTestSourcePath().toString() + File.separator + getOptions().getUnitTestFolderPath());
-			FileUtility.addJavaFilesToCompiler(compiler, unitTestFolder);
-			for (Map.Entry<String, String> file : mapFragmentsToFiles(fragments).entrySet()) {
-				compiler.addSource(FileUtility.fileNameToClassName(file.getKey()), file.getValue());
+			for (Map.Entry<String, String> source : unitTestCache.getSources().entrySet()) {
+				compiler.addSource(source.getKey(), source.getValue());
+			}
+			for (Map.Entry<String, String> source : sources.entrySet()) {
+				compiler.addSource(source.getKey(), source.getValue());
 			}
 		} catch (Exception e) {
 			throw new TestingException("Error while adding files", e);
 		}
-		Map<String, Class<?>> classes;
 
+		if (!compileInMemory(compiler)) {
+			return trackResult(ETestResult.ERROR_COMPILATION);
+		}
+
+		if (m_options.isCacheUnitTestCompilation() && !unitTestCache.isInitialized()) {
+			try {
+				Map<String, byte[]> compiledCode = compiler.getCompiledCode();
+				Map<String, String> sourceClassNames = new HashMap<>();
+				for (String className : compiledCode.keySet()) {
+					sourceClassNames.put(className, compiler.getSourceClassName(className));
+				}
+				unitTestCache.initialize(compiledCode, sourceClassNames);
+			} catch (IOException e) {
+				throw new TestingException("Unable to cache compiled unit tests", e);
+			}
+		}
+
+		return trackResult(executeUnitTest(compiler.getClassloader()));
+	}
+
+	// compiles the unit tests and the code under reduction, reusing the bytecode of unchanged compilation units
+	protected ETestResult testIncremental(Map<String, String> sources, UnitTestCompilationCache unitTestCache) {
+		IncrementalJavaCompiler compiler = new IncrementalJavaCompiler(this::newInMemoryCompiler, m_incrementalCompilationCache);
+		unitTestCache.getSources().forEach(compiler::addSource);
+		sources.forEach(compiler::addSource);
+
+		ClassLoader classLoader;
+		Exception failure = null;
 		try {
-			m_compilerCalls.incrementAndGet();
-			classes = compiler.compileAll();
+			classLoader = compiler.compileAll();
 		} catch (CompilationException e) {
-			if(m_options.isLogCompilationErrors()) {
+			failure = e;
+			if (m_options.isLogCompilationErrors()) {
 				System.out.println("############ Compilation error: ############ \n" + e);
 			}
-			m_compilationErrors.incrementAndGet();
+			return trackResult(ETestResult.ERROR_COMPILATION);
+		} catch (CompilationCancelledException e) {
+			failure = e;
+			throw new TestCancelledException(e);
+		} catch (Exception e) {
+			failure = e;
+			throw new TestingException("Error during compilation", e);
+		} finally {
+			m_compiledUnits.addAndGet(compiler.getCompiledUnits());
+			m_reusedUnits.addAndGet(compiler.getReusedUnits());
+			checkCompilationSession(failure);
+		}
+
+		ETestResult result = executeUnitTest(classLoader);
+		if (result == ETestResult.FAILED && compiler.getReusedUnits() > 0) {
+			// a failing result is confirmed by a full compilation
+			ICompiler fullCompiler = newInMemoryCompiler();
+			try {
+				for (Map.Entry<String, String> source : unitTestCache.getSources().entrySet()) {
+					fullCompiler.addSource(source.getKey(), source.getValue());
+				}
+				for (Map.Entry<String, String> source : sources.entrySet()) {
+					fullCompiler.addSource(source.getKey(), source.getValue());
+				}
+			} catch (Exception e) {
+				throw new TestingException("Error while adding files", e);
+			}
+			if (!compileInMemory(fullCompiler)) {
+				return trackResult(ETestResult.ERROR_COMPILATION);
+			}
+			result = executeUnitTest(fullCompiler.getClassloader());
+		}
+		return trackResult(result);
+	}
+
+	// compiles only the code under reduction and runs the unit tests from cached bytecode.
+	// returns null, if the unit tests reference code that is not part of the configuration.
+	protected ETestResult testWithCachedUnitTests(Map<String, String> sources, UnitTestCompilationCache unitTestCache) {
+		ICompiler compiler = newInMemoryCompiler();
+		try {
+			for (Map.Entry<String, String> source : sources.entrySet()) {
+				compiler.addSource(source.getKey(), source.getValue());
+			}
+		} catch (Exception e) {
+			throw new TestingException("Error while adding files", e);
+		}
+
+		if (!compileInMemory(compiler)) {
 			return ETestResult.ERROR_COMPILATION;
+		}
+
+		try {
+			if (!unitTestCache.isCompatible(compiler.getCompiledCode())) {
+				m_unitTestCacheMisses.incrementAndGet();
+				return null;
+			}
+			for (Map.Entry<String, byte[]> unitTestCode : unitTestCache.getByteCode().entrySet()) {
+				compiler.addCompiledCode(unitTestCode.getKey(), unitTestCode.getValue());
+			}
 		} catch (Exception e) {
+			throw new TestingException("Unable to reuse compiled unit tests", e);
+		}
+		return executeUnitTest(compiler.getClassloader());
+	}
+
+	protected ICompiler newInMemoryCompiler() {
+		CompilationSession session = m_compilationSessions.get();
+		ICompiler compiler = getOptions().getCompilationType() == TestExecutorOptions.ECompilationType.IN_MEMORY_ECJ
+				? session.newEclipseCompiler()
+				: session.newCompiler();
+		compiler.ignoreWarnings();
+		if (m_options.isTwoPhaseCompilation()) {
+			compiler.checkBeforeGenerate();
+		}
+		return compiler;
+	}
+
+	// returns false, if the code does not compile
+	protected boolean compileInMemory(ICompiler compiler) {
+		Exception failure = null;
+		try {
+			compiler.compileAll();
+			return true;
+		} catch (CompilationException e) {
+			failure = e;
+			if (m_options.isLogCompilationErrors()) {
+				System.out.println("############ Compilation error: ############ \n" + e);
+			}
+			return false;
+		} catch (CompilationCancelledException e) {
+			failure = e;
+			throw new TestCancelledException(e);
+		} catch (Exception e) {
+			failure = e;
 			throw new TestingException("Error during compilation", e);
+		} finally {
+			checkCompilationSession(failure);
+		}
+	}
+
+	// an interrupt during the I/O of javac closes the archives opened by the standard file manager of the session,
+	// which breaks every further compilation on the thread, so the session of the thread is closed and recreated
+	// after an interrupted compilation or a compilation that failed on a closed archive
+	private void checkCompilationSession(Exception failure) {
+		boolean closedChannel = failure instanceof CompilationCancelledException
+				|| failure != null && String.valueOf(failure.getMessage()).contains("ClosedChannelException");
+		if (!Thread.currentThread().isInterrupted() && !closedChannel) {
+			return;
+		}
+		CompilationSession session = m_compilationSessions.get();
+		m_compilationSessions.remove();
+		try {
+			session.close();
+		} catch (IOException e) {
+			// the archives of the discarded session are already closed
 		}
+	}
 
+	protected ETestResult executeUnitTest(ClassLoader classLoader) {
+		Callable<Throwable> unitTestRun = m_unitTestLauncher != null
+				? () -> m_unitTestLauncher.run(classLoader, getOptions().getUnitTestMethod())
+				: getReflectiveUnitTestRun(classLoader);
+		Throwable failure;
+		try {
+			// only the run itself is measured, not the wait for a permit of the runner
+			failure = m_testRunner.run(() -> {
+				long start = System.nanoTime();
+				try {
+					return unitTestRun.call();
+				} finally {
+					m_lastUnitTestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				}
+			}, m_testTimeoutMillis);
+		} catch (TimeoutException ex) {
+			trackTimeout();
+			if (m_options.isLogRuntimeErrors()) {
+				System.out.println("Code execution timed out after " + m_testTimeoutMillis + "ms");
+			}
+			return ETestResult.ERROR_RUNTIME;
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof TestingException) {
+				throw (TestingException) ex.getCause();
+			}
+			failure = ex.getCause();
+		} catch (InterruptedException ex) {
+			// the test thread is interrupted and stopped by the runner
+			Thread.currentThread().interrupt();
+			throw new TestCancelledException(ex);
+		}
+
+		if (failure == null) {
+			return ETestResult.OK;
+		}
+		if (isExpectedFailure(failure)) {
+			return ETestResult.FAILED;
+		}
+		if (m_options.isLogRuntimeErrors()) {
+			System.out.println("Code execution runtime error:");
+			failure.printStackTrace(System.out);
+		}
+		return ETestResult.ERROR_RUNTIME;
+	}
 
-		// execute unit test
-		Class<?> unitTestClass = classes.get(unitTestName[0]);
+	// invokes the test method directly, returns the exception the test failed with
+	private Callable<Throwable> getReflectiveUnitTestRun(ClassLoader classLoader) {
+		String[] unitTestName = getOptions().getUnitTestMethod().split("#");
 		try {
+			Class<?> unitTestClass = classLoader.loadClass(unitTestName[0]);
 			Object unitTest = instantiateUnitTest(unitTestClass);
 
 			Method testingMethod;
@@ -237,32 +622,161 @@ public abstract class ATestExecutor implements ITestExecutor {
 			}
 			testingMethod.setAccessible(true);
 
-			try {
-				Method finalTestingMethod = testingMethod;
-				ExecutorService executor = Executors.newSingleThreadExecutor();
-				executor.submit(() -> finalTestingMethod.invoke(unitTest)).get(2, TimeUnit.MINUTES);
-				m_okRuns.incrementAndGet();
-				return ETestResult.OK;
-			} catch (Exception ex) {
-				if (ex.getCause() != null &&
-						(ex.getCause().toString() != null && ex.getCause().toString().contains(getOptions().getExpectedResult())
-								|| ex.getCause().getCause() != null && ex.getCause().getCause().toString() != null && ex.getCause().getCause().toString().contains(getOptions().getExpectedResult()))) {
-					m_failedRuns.incrementAndGet();
-					return ETestResult.FAILED;
-				} else {
-					if (m_options.isLogRuntimeErrors()) {
-						System.out.println("Code execution runtime error:");
-						ex.printStackTrace(System.out);
-					}
-					m_runtimeErrors.incrementAndGet();
-					return ETestResult.ERROR_RUNTIME;
+			Method finalTestingMethod = testingMethod;
+			return () -> {
+				try {
+					finalTestingMethod.invoke(unitTest);
+					return null;
+				} catch (InvocationTargetException e) {
+					return e.getCause();
 				}
-			}
+			};
 		} catch (Exception e) {
 			throw new TestingException("Error during test execution", e);
 		}
 	}
 
+	protected boolean isExpectedFailure(Throwable failure) {
+		// once the signature is captured, failures are matched without building their description
+		FailureSignature signature = m_failureSignature;
+		if (signature != null) {
+			return signature.matches(failure);
+		}
+		return isExpectedFailure(String.valueOf(failure), failure.getClass().getName(), failure.getMessage(), failure.getStackTrace());
+	}
+
+	// the exception class is null for failures without an exception, e.g. a crashed test worker, they never match a signature
+	protected boolean isExpectedFailure(String description, String exceptionClass, String message, StackTraceElement[] stackTrace) {
+		FailureSignature signature = m_failureSignature;
+		if (signature != null) {
+			return exceptionClass != null && signature.matches(exceptionClass, message, stackTrace);
+		}
+		if (!description.contains(getOptions().getExpectedResult())) {
+			return false;
+		}
+		if (m_options.isFailureSignature()) {
+			if (exceptionClass == null) {
+				return false;
+			}
+			captureFailureSignature(exceptionClass, message, stackTrace);
+		}
+		return true;
+	}
+
+	// the first failure matching the expected result defines the signature of all further failures
+	private synchronized void captureFailureSignature(String exceptionClass, String message, StackTraceElement[] stackTrace) {
+		if (m_failureSignature == null) {
+			m_failureSignature = FailureSignature.capture(exceptionClass, message, stackTrace, m_options.getFailureMessagePattern(), m_options.getFailureSignatureFrames());
+			System.out.println("Captured failure signature " + m_failureSignature);
+		}
+	}
+
+	protected void trackTimeout() {
+		m_timeouts.incrementAndGet();
+		m_timedOut.set(true);
+	}
+
+	// updates the statistics of the executor with the result of a test
+	protected ETestResult trackResult(ETestResult result) {
+		switch (result) {
+			case OK:
+				m_okRuns.incrementAndGet();
+				break;
+			case FAILED:
+				m_failedRuns.incrementAndGet();
+				break;
+			case ERROR_COMPILATION:
+				m_compilationErrors.incrementAndGet();
+				break;
+			case ERROR_RUNTIME:
+				m_runtimeErrors.incrementAndGet();
+				break;
+		}
+		return result;
+	}
+
+	protected UnitTestCompilationCache getUnitTestCompilationCache() throws IOException {
+		UnitTestCompilationCache cache = m_unitTestCompilationCache;
+		if (cache == null) {
+			synchronized (this) {
+				cache = m_unitTestCompilationCache;
+				if (cache == null) {
+					Path unitTestFolder = FileSystems.getDefault().getPath(getTestSourcePath().toString() + File.separator + getOptions().getUnitTestFolderPath());
+					cache = new UnitTestCompilationCache(FileUtility.readJavaFiles(unitTestFolder));
+					m_unitTestCompilationCache = cache;
+				}
+			}
+		}
+		return cache;
+	}
+
+	protected ETestResult testInProcess(Map<String, String> files) {
+		Map<String, String> sources;
+		TestWorkerPool workerPool;
+		try {
+			sources = new HashMap<>(getUnitTestCompilationCache().getSources());
+			for (Map.Entry<String, String> file : files.entrySet()) {
+				sources.put(FileUtility.fileNameToClassName(file.getKey()), file.getValue());
+			}
+			workerPool = getWorkerPool();
+		} catch (IOException e) {
+			throw new TestingException("Unable to start test workers", e);
+		}
+
+		m_compilerCalls.incrementAndGet();
+		TestWorkerPool.Result result;
+		try {
+			result = workerPool.execute(sources, getOptions().getUnitTestMethod(), m_testTimeoutMillis, m_options.isTwoPhaseCompilation());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TestCancelledException(e);
+		} catch (IOException e) {
+			throw new TestingException("Unexpected error while executing unit test", e);
+		}
+		if (result.testMillis >= 0) {
+			m_lastUnitTestMillis = result.testMillis;
+		}
+		switch (result.type) {
+			case TestWorker.RESULT_OK:
+				return trackResult(ETestResult.OK);
+			case TestWorker.RESULT_COMPILATION_ERROR:
+				if (m_options.isLogCompilationErrors()) {
+					System.out.println("############ Compilation error: ############ \n" + result.message);
+				}
+				return trackResult(ETestResult.ERROR_COMPILATION);
+			case TestWorker.RESULT_TIMEOUT:
+				trackTimeout();
+				if (m_options.isLogRuntimeErrors()) {
+					System.out.println("Code execution timed out:\n" + result.message);
+				}
+				return trackResult(ETestResult.ERROR_RUNTIME);
+			default:
+				if (result.failure != null
+						? isExpectedFailure(result.message, result.failure.exceptionClass, result.failure.message, result.failure.stackTrace)
+						: isExpectedFailure(result.message, null, null, null)) {
+					return trackResult(ETestResult.FAILED);
+				}
+				if (m_options.isLogRuntimeErrors()) {
+					System.out.println("Code execution runtime error:\n" + result.message);
+				}
+				return trackResult(ETestResult.ERROR_RUNTIME);
+		}
+	}
+
+	protected TestWorkerPool getWorkerPool() throws IOException {
+		TestWorkerPool workerPool = m_workerPool;
+		if (workerPool == null) {
+			synchronized (this) {
+				workerPool = m_workerPool;
+				if (workerPool == null) {
+					workerPool = new TestWorkerPool(getOptions().getMaxConcurrentTests(), getOptions().getWorkerMaxHeapMegabytes());
+					m_workerPool = workerPool;
+				}
+			}
+		}
+		return workerPool;
+	}
+
 	protected ETestResult testWithCommandLine(List<ICodeFragment> fragments) {
 		Path testSourcePath = getTestSourcePath();
 		Path testFolderPath = getTestFolderPath();
@@ -329,9 +843,14 @@ public abstract class ATestExecutor implements ITestExecutor {
 		ProcessBuilder pb2 = new ProcessBuilder(commands);
 		Process p2;
 		try {
+			long start = System.nanoTime();
 			p2 = pb2.start();
-			if (!p2.waitFor(1, TimeUnit.MINUTES)) {
-				throw new TestingException("Timed out while running testing code");
+			boolean finished = p2.waitFor(m_testTimeoutMillis, TimeUnit.MILLISECONDS);
+			m_lastUnitTestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			if (!finished) {
+				p2.destroyForcibly();
+				trackTimeout();
+				return ETestResult.ERROR_RUNTIME;
 			}
 			if (p2.exitValue() > 0) {
 				String input = IOUtils.toString(p2.getInputStream(), StandardCharsets.UTF_8);
@@ -368,6 +887,14 @@ public abstract class ATestExecutor implements ITestExecutor {
 		if (m_options.isPreSliceCode()) {
 			SlicerUtility.doSlicing(testSourcePath, m_options);
 		}
+		m_unitTestCompilationCache = null;
+		m_failureSignature = null;
+		m_baselineMeasured = false;
+		m_lastUnitTestMillis = -1;
+		m_oracleDigest = null;
+		if (m_renderedSourceCache != null) {
+			m_renderedSourceCache.clear();
+		}
 
 		System.out.println("Formatting code in source folder");
 		formatModuleFolder(testSourcePath);
@@ -376,8 +903,32 @@ public abstract class ATestExecutor implements ITestExecutor {
 	}
 
 	public String getStatistics() {
-		return String.format("Compiler calls: %d, compilation errors: %d, runtime errors: %d, failed runs: %d, ok runs: %d",
+		String statistics = String.format("Compiler calls: %d, compilation errors: %d, runtime errors: %d, failed runs: %d, ok runs: %d",
 				m_compilerCalls.get(), m_compilationErrors.get(), m_runtimeErrors.get(), m_failedRuns.get(), m_okRuns.get());
+		statistics += String.format(", timeouts: %d", m_timeouts.get());
+		if (m_options.isSyntaxPreCheck()) {
+			statistics += String.format(", parse rejections: %d", m_parseRejections.get());
+		}
+		if (m_options.isCacheUnitTestCompilation()) {
+			statistics += String.format(", cached unit test runs: %d, unit test cache misses: %d", m_cachedUnitTestRuns.get(), m_unitTestCacheMisses.get());
+		}
+		if (m_options.getCompilationType() != TestExecutorOptions.ECompilationType.COMMAND_LINE
+				&& m_options.getCompilationType() != TestExecutorOptions.ECompilationType.PROCESS) {
+			statistics += String.format(", live test threads: %d, leaked test threads: %d", m_testRunner.getLiveThreads(), m_testRunner.getLeakedThreads());
+		}
+		if (m_renderedSourceCache != null) {
+			statistics += ", " + m_renderedSourceCache.getStatistics();
+		}
+		if (m_persistentOutcomeCache != null) {
+			statistics += String.format(", persistent cache hits: %d", m_persistentOutcomeCache.getHits());
+		}
+		if (m_workerPool != null) {
+			statistics += String.format(", worker restarts: %d", m_workerPool.getRestarts());
+		}
+		if (m_options.isIncrementalCompilation()) {
+			statistics += String.format(", compiled units: %d, reused units: %d", m_compiledUnits.get(), m_reusedUnits.get());
+		}
+		return statistics;
 	}
 
 	protected boolean isExcludedFile(Path path) {
@@ -0,0 +1,98 @@
+package testexecutor;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Signature of the failure that has to be preserved by the reduction.
+ * It is captured from the exception of the initial failing test and consists of the exception class, the message or a
+ * pattern for it and optionally the class and method names of the top stack frames.
+ * Line numbers are ignored, as they change with every reduction.
+ */
+public class FailureSignature {
+
+	private final String m_exceptionClass;
+	private final String m_message;
+	private final Pattern m_messagePattern;
+	private final String[] m_frameClasses;
+	private final String[] m_frameMethods;
+
+	private FailureSignature(String exceptionClass, String message, Pattern messagePattern, StackTraceElement[] frames) {
+		m_exceptionClass = exceptionClass;
+		m_message = message;
+		m_messagePattern = messagePattern;
+		m_frameClasses = new String[frames.length];
+		m_frameMethods = new String[frames.length];
+		for (int i = 0; i < frames.length; i++) {
+			m_frameClasses[i] = frames[i].getClassName();
+			m_frameMethods[i] = frames[i].getMethodName();
+		}
+	}
+
+	/**
+	 * @param messagePattern pattern the message of matching exceptions has to contain, the message of the failure has to
+	 *                       be equal if null
+	 * @param numberOfFrames number of top stack frames that have to be equal
+	 */
+	public static FailureSignature capture(Throwable failure, String messagePattern, int numberOfFrames) {
+		return capture(failure.getClass().getName(), failure.getMessage(), failure.getStackTrace(), messagePattern, numberOfFrames);
+	}
+
+	// captures the signature of a failure that was reported by a test worker process
+	public static FailureSignature capture(String exceptionClass, String message, StackTraceElement[] stackTrace,
+										   String messagePattern, int numberOfFrames) {
+		return new FailureSignature(exceptionClass, message,
+				messagePattern != null ? Pattern.compile(messagePattern) : null,
+				Arrays.copyOf(stackTrace, Math.min(numberOfFrames, stackTrace.length)));
+	}
+
+	public boolean matches(Throwable failure) {
+		// exceptions of the tested code are loaded by a new class loader for every test
+		if (!matches(failure.getClass().getName(), failure.getMessage())) {
+			return false;
+		}
+		// the stack trace is copied by every call, so it is only requested if frames have to be compared
+		return m_frameClasses.length == 0 || matches(failure.getStackTrace());
+	}
+
+	public boolean matches(String exceptionClass, String message, StackTraceElement[] stackTrace) {
+		return matches(exceptionClass, message) && matches(stackTrace);
+	}
+
+	private boolean matches(String exceptionClass, String message) {
+		if (!m_exceptionClass.equals(exceptionClass)) {
+			return false;
+		}
+		if (m_messagePattern != null) {
+			return message != null && m_messagePattern.matcher(message).find();
+		}
+		return Objects.equals(m_message, message);
+	}
+
+	private boolean matches(StackTraceElement[] stackTrace) {
+		if (stackTrace.length < m_frameClasses.length) {
+			return false;
+		}
+		for (int i = 0; i < m_frameClasses.length; i++) {
+			if (!m_frameMethods[i].equals(stackTrace[i].getMethodName()) || !m_frameClasses[i].equals(stackTrace[i].getClassName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(m_exceptionClass);
+		if (m_messagePattern != null) {
+			sb.append(" with message matching '").append(m_messagePattern.pattern()).append("'");
+		} else if (m_message != null) {
+			sb.append(" with message '").append(m_message).append("'");
+		}
+		for (int i = 0; i < m_frameClasses.length; i++) {
+			sb.append("\n\tat ").append(m_frameClasses[i]).append(".").append(m_frameMethods[i]);
+		}
+		return sb.toString();
+	}
+}
@@ -21,6 +21,10 @@ public interface ITestExecutor {
 
 	ETestResult test(List<ICodeFragment> fragments);
 
+	// derives the timeout of all further tests from the unit test run of the initial failing test, which has to be the
+	// last test executed before
+	void calibrateTimeout();
+
 	// sets the source folder of the executor to the build folder
 	// in order to rerun the test with the previous result
 	void changeSourceToOutputFolder();
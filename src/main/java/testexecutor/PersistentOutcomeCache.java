@@ -0,0 +1,109 @@
+package testexecutor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test results that survive the run, stored in an append-only file of fixed size records.
+ * A record consists of a 128 bit key, the hash of the tested sources and the oracle, and the ordinal of the result.
+ * The file is memory mapped once to load the records of earlier runs, new results are appended by a single writer thread.
+ * A partially written record at the end of the file is ignored and overwritten.
+ */
+public class PersistentOutcomeCache {
+
+	static final int KEY_LENGTH = 16;
+	private static final byte[] HEADER = "DDMINOC1".getBytes(StandardCharsets.US_ASCII);
+	private static final int RECORD_LENGTH = KEY_LENGTH + 1;
+
+	private final FileChannel m_channel;
+	private final Map<ByteBuffer, ITestExecutor.ETestResult> m_results = new ConcurrentHashMap<>();
+	private final int m_loadedResults;
+	private final AtomicInteger m_hits = new AtomicInteger();
+	// appends the records of all threads
+	private final ExecutorService m_writer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "outcome-cache-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private long m_position;
+
+	public PersistentOutcomeCache(Path file) throws IOException {
+		m_channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long size = m_channel.size();
+		if (size < HEADER.length) {
+			m_channel.truncate(0);
+			m_channel.write(ByteBuffer.wrap(HEADER), 0);
+			m_position = HEADER.length;
+		} else {
+			MappedByteBuffer buffer = m_channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			byte[] header = new byte[HEADER.length];
+			buffer.get(header);
+			if (!Arrays.equals(header, HEADER)) {
+				throw new IOException("Unknown format of outcome cache " + file);
+			}
+			ITestExecutor.ETestResult[] values = ITestExecutor.ETestResult.values();
+			while (buffer.remaining() >= RECORD_LENGTH) {
+				byte[] key = new byte[KEY_LENGTH];
+				buffer.get(key);
+				int ordinal = buffer.get();
+				if (ordinal >= 0 && ordinal < values.length) {
+					m_results.put(ByteBuffer.wrap(key), values[ordinal]);
+				}
+			}
+			m_position = buffer.position();
+		}
+		m_loadedResults = m_results.size();
+	}
+
+	// returns null, if the result is unknown
+	public ITestExecutor.ETestResult get(byte[] key) {
+		ITestExecutor.ETestResult result = m_results.get(ByteBuffer.wrap(key));
+		if (result != null) {
+			m_hits.incrementAndGet();
+		}
+		return result;
+	}
+
+	public void put(byte[] key, ITestExecutor.ETestResult result) {
+		if (m_results.putIfAbsent(ByteBuffer.wrap(key.clone()), result) != null) {
+			return;
+		}
+		ByteBuffer record = ByteBuffer.allocate(RECORD_LENGTH);
+		record.put(key).put((byte) result.ordinal());
+		record.flip();
+		// the channel is closed if a thread writing to it is interrupted, e.g. by the cancellation of its test
+		m_writer.execute(() -> {
+			try {
+				while (record.hasRemaining()) {
+					m_position += m_channel.write(record, m_position);
+				}
+			} catch (IOException e) {
+				System.out.println("Unable to write to outcome cache: " + e);
+			}
+		});
+	}
+
+	public int getHits() {
+		return m_hits.get();
+	}
+
+	// number of results read from earlier runs
+	public int getLoadedResults() {
+		return m_loadedResults;
+	}
+
+	public int getSize() {
+		return m_results.size();
+	}
+}
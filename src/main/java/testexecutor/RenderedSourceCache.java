@@ -0,0 +1,102 @@
+package testexecutor;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Test results of the programs tested during a run, keyed by a hash of the rendered source files.
+ * Different fragment selections that render to the same source files share a single test.
+ * A program that is tested by another thread is not tested again, the thread waits for the running test instead.
+ * The cache evicts the least recently used results beyond its maximum size.
+ */
+public class RenderedSourceCache {
+
+	private final int m_maxEntries;
+	private final Map<ByteBuffer, CompletableFuture<ITestExecutor.ETestResult>> m_entries;
+	private long m_hits = 0;
+	private long m_misses = 0;
+	private long m_evictions = 0;
+
+	public RenderedSourceCache(int maxEntries) {
+		m_maxEntries = maxEntries;
+		m_entries = new LinkedHashMap<ByteBuffer, CompletableFuture<ITestExecutor.ETestResult>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CompletableFuture<ITestExecutor.ETestResult>> eldest) {
+				if (size() > m_maxEntries) {
+					m_evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	// returns the result of the program with the given key, the program is only tested if it is unknown
+	public ITestExecutor.ETestResult test(byte[] key, Supplier<ITestExecutor.ETestResult> test) {
+		ByteBuffer entryKey = ByteBuffer.wrap(key.clone());
+		while (true) {
+			CompletableFuture<ITestExecutor.ETestResult> future;
+			boolean isOwner = false;
+			synchronized (this) {
+				future = m_entries.get(entryKey);
+				if (future == null) {
+					future = new CompletableFuture<>();
+					m_entries.put(entryKey, future);
+					isOwner = true;
+					m_misses++;
+				} else {
+					m_hits++;
+				}
+			}
+
+			if (!isOwner) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new TestCancelledException(e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof TestCancelledException) {
+						// the identical test was cancelled, this thread tests the program itself
+						continue;
+					}
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					throw new TestingException("Identical test failed", e.getCause());
+				}
+			}
+
+			try {
+				ITestExecutor.ETestResult result = test.get();
+				future.complete(result);
+				return result;
+			} catch (RuntimeException | Error e) {
+				remove(entryKey, future);
+				future.completeExceptionally(e);
+				throw e;
+			}
+		}
+	}
+
+	// forgets a result that must not be reused, e.g. the result of a timed out test
+	public synchronized void remove(byte[] key) {
+		m_entries.remove(ByteBuffer.wrap(key));
+	}
+
+	private synchronized void remove(ByteBuffer key, CompletableFuture<ITestExecutor.ETestResult> future) {
+		m_entries.remove(key, future);
+	}
+
+	public synchronized void clear() {
+		m_entries.clear();
+	}
+
+	public synchronized String getStatistics() {
+		return String.format("rendered source cache hits: %d, misses: %d, evictions: %d", m_hits, m_misses, m_evictions);
+	}
+}
@@ -0,0 +1,12 @@
+package testexecutor;
+
+/**
+ * Thrown if the thread testing a configuration was interrupted, e.g. because another complement already failed.
+ * A cancelled test has no result, so nothing is cached for its configuration.
+ */
+public class TestCancelledException extends TestingException {
+
+    public TestCancelledException(Throwable throwable) {
+        super("Test was cancelled", throwable);
+    }
+}
@@ -32,6 +32,28 @@ public class TestExecutorOptions {
 	private boolean m_preSliceCode = true;
 	private int m_graphAlgorithmFragmentLimit = 0;
 	private boolean m_graphAlgorithmEscalatingFragmentLimit = false;
+	private boolean m_cacheUnitTestCompilation = false;
+	private boolean m_incrementalCompilation = false;
+	private boolean m_syntaxPreCheck = true;
+	private boolean m_twoPhaseCompilation = false;
+	private int m_workerMaxHeapMegabytes = 512;
+	private double m_timeoutMultiplier = 10;
+	private long m_minimumTimeoutMillis = 1000;
+	private boolean m_failureSignature = false;
+	private String m_failureMessagePattern;
+	private int m_failureSignatureFrames = 0;
+	private boolean m_jUnitLauncher = true;
+	private int m_outcomeCacheSize = 1 << 20;
+	private boolean m_persistentOutcomeCache = false;
+	private boolean m_renderedSourceCache = true;
+	private boolean m_speculativeExecution = false;
+	private boolean m_combineFailingComplements = false;
+	private int m_subtreeParallelism = 1;
+	private EGraphDatabaseType m_graphDatabaseType = EGraphDatabaseType.NEO4J;
+	private String m_graphDatabaseUrl = "bolt://localhost:7687";
+	private String m_graphDatabaseUser;
+	private String m_graphDatabasePassword;
+	private int m_graphDatabaseMaxConnectionPoolSize = 100;
 
 	public TestExecutorOptions withModulePath(String modulePath) {
 		m_modulePath = modulePath;
@@ -159,6 +181,220 @@ public class TestExecutorOptions {
 		return m_graphAlgorithmEscalatingFragmentLimit;
 	}
 
+	public TestExecutorOptions withCacheUnitTestCompilation(boolean cacheUnitTestCompilation) {
+		m_cacheUnitTestCompilation = cacheUnitTestCompilation;
+		return this;
+	}
+
+	public boolean isCacheUnitTestCompilation() {
+		return m_cacheUnitTestCompilation;
+	}
+
+	public TestExecutorOptions withIncrementalCompilation(boolean incrementalCompilation) {
+		m_incrementalCompilation = incrementalCompilation;
+		return this;
+	}
+
+	public boolean isIncrementalCompilation() {
+		return m_incrementalCompilation;
+	}
+
+	public TestExecutorOptions withSyntaxPreCheck(boolean syntaxPreCheck) {
+		m_syntaxPreCheck = syntaxPreCheck;
+		return this;
+	}
+
+	public boolean isSyntaxPreCheck() {
+		return m_syntaxPreCheck;
+	}
+
+	public TestExecutorOptions withTwoPhaseCompilation(boolean twoPhaseCompilation) {
+		m_twoPhaseCompilation = twoPhaseCompilation;
+		return this;
+	}
+
+	public boolean isTwoPhaseCompilation() {
+		return m_twoPhaseCompilation;
+	}
+
+	// maximum heap of a worker JVM of the PROCESS compilation type
+	public TestExecutorOptions withWorkerMaxHeapMegabytes(int workerMaxHeapMegabytes) {
+		m_workerMaxHeapMegabytes = workerMaxHeapMegabytes;
+		return this;
+	}
+
+	public int getWorkerMaxHeapMegabytes() {
+		return m_workerMaxHeapMegabytes;
+	}
+
+	// timeout of a test as a multiple of the duration of the initial failing test, 0 keeps the fixed timeout
+	public TestExecutorOptions withTimeoutMultiplier(double timeoutMultiplier) {
+		m_timeoutMultiplier = timeoutMultiplier;
+		return this;
+	}
+
+	public double getTimeoutMultiplier() {
+		return m_timeoutMultiplier;
+	}
+
+	// lower bound of the timeout derived from the initial failing test
+	public TestExecutorOptions withMinimumTimeoutMillis(long minimumTimeoutMillis) {
+		m_minimumTimeoutMillis = minimumTimeoutMillis;
+		return this;
+	}
+
+	public long getMinimumTimeoutMillis() {
+		return m_minimumTimeoutMillis;
+	}
+
+	// matches failing tests against the signature of the initial failing test instead of the expected result
+	public TestExecutorOptions withFailureSignature(boolean failureSignature) {
+		m_failureSignature = failureSignature;
+		return this;
+	}
+
+	public boolean isFailureSignature() {
+		return m_failureSignature;
+	}
+
+	// pattern the message of a failure has to contain, otherwise the message has to be equal
+	public TestExecutorOptions withFailureMessagePattern(String failureMessagePattern) {
+		m_failureMessagePattern = failureMessagePattern;
+		return this;
+	}
+
+	public String getFailureMessagePattern() {
+		return m_failureMessagePattern;
+	}
+
+	// number of top stack frames of a failure that have to be equal
+	public TestExecutorOptions withFailureSignatureFrames(int failureSignatureFrames) {
+		m_failureSignatureFrames = failureSignatureFrames;
+		return this;
+	}
+
+	public int getFailureSignatureFrames() {
+		return m_failureSignatureFrames;
+	}
+
+	// runs the in memory tests on the JUnit platform instead of invoking the test method directly
+	public TestExecutorOptions withJUnitLauncher(boolean jUnitLauncher) {
+		m_jUnitLauncher = jUnitLauncher;
+		return this;
+	}
+
+	public boolean isJUnitLauncher() {
+		return m_jUnitLauncher;
+	}
+
+	// maximum number of test results the DDmin algorithm keeps
+	public TestExecutorOptions withOutcomeCacheSize(int outcomeCacheSize) {
+		m_outcomeCacheSize = outcomeCacheSize;
+		return this;
+	}
+
+	public int getOutcomeCacheSize() {
+		return m_outcomeCacheSize;
+	}
+
+	// keeps the test results in a file of the working directory to reuse them in later runs
+	public TestExecutorOptions withPersistentOutcomeCache(boolean persistentOutcomeCache) {
+		m_persistentOutcomeCache = persistentOutcomeCache;
+		return this;
+	}
+
+	public boolean isPersistentOutcomeCache() {
+		return m_persistentOutcomeCache;
+	}
+
+	// tests fragment selections that render to the same source files only once per run
+	public TestExecutorOptions withRenderedSourceCache(boolean renderedSourceCache) {
+		m_renderedSourceCache = renderedSourceCache;
+		return this;
+	}
+
+	public boolean isRenderedSourceCache() {
+		return m_renderedSourceCache;
+	}
+
+	// idle DDmin threads test the subsets and the complements of the next granularity ahead of time
+	public TestExecutorOptions withSpeculativeExecution(boolean speculativeExecution) {
+		m_speculativeExecution = speculativeExecution;
+		return this;
+	}
+
+	public boolean isSpeculativeExecution() {
+		return m_speculativeExecution;
+	}
+
+	// waits for all complements of a concurrent DDmin step and removes the subsets of all failing complements at once
+	public TestExecutorOptions withCombineFailingComplements(boolean combineFailingComplements) {
+		m_combineFailingComplements = combineFailingComplements;
+		return this;
+	}
+
+	public boolean isCombineFailingComplements() {
+		return m_combineFailingComplements;
+	}
+
+	// number of independent subtrees HDDrec reduces concurrently, the scheduler gets the configured number of threads for each of them
+	public TestExecutorOptions withSubtreeParallelism(int subtreeParallelism) {
+		m_subtreeParallelism = subtreeParallelism;
+		return this;
+	}
+
+	public int getSubtreeParallelism() {
+		return m_subtreeParallelism;
+	}
+
+	// the graph store of GDD and GDDr, the in-memory graph needs no neo4j server
+	public TestExecutorOptions withGraphDatabaseType(EGraphDatabaseType graphDatabaseType) {
+		m_graphDatabaseType = graphDatabaseType;
+		return this;
+	}
+
+	public EGraphDatabaseType getGraphDatabaseType() {
+		return m_graphDatabaseType;
+	}
+
+	public TestExecutorOptions withGraphDatabaseUrl(String graphDatabaseUrl) {
+		m_graphDatabaseUrl = graphDatabaseUrl;
+		return this;
+	}
+
+	public String getGraphDatabaseUrl() {
+		return m_graphDatabaseUrl;
+	}
+
+	// without a user the neo4j server must have authentication disabled
+	public TestExecutorOptions withGraphDatabaseCredentials(String user, String password) {
+		m_graphDatabaseUser = user;
+		m_graphDatabasePassword = password;
+		return this;
+	}
+
+	public String getGraphDatabaseUser() {
+		return m_graphDatabaseUser;
+	}
+
+	public String getGraphDatabasePassword() {
+		return m_graphDatabasePassword;
+	}
+
+	public TestExecutorOptions withGraphDatabaseMaxConnectionPoolSize(int maxConnectionPoolSize) {
+		m_graphDatabaseMaxConnectionPoolSize = maxConnectionPoolSize;
+		return this;
+	}
+
+	public int getGraphDatabaseMaxConnectionPoolSize() {
+		return m_graphDatabaseMaxConnectionPoolSize;
+	}
+
+	// number of tests that might run at the same time
+	public int getMaxConcurrentTests() {
+		return Math.max(1, m_numberOfThreads) * Math.max(1, m_subtreeParallelism);
+	}
+
 	@Override
 	public String toString() {
 		return "{\n" +
@@ -176,11 +412,39 @@ public class TestExecutorOptions {
 				"\tm_preSliceCode=" + m_preSliceCode + ",\n" +
 				"\tm_graphAlgorithmFragmentLimit=" + m_graphAlgorithmFragmentLimit + ",\n" +
 				"\tm_graphAlgorithmEscalatingFragmentLimit=" + m_graphAlgorithmEscalatingFragmentLimit + ",\n" +
+				"\tm_cacheUnitTestCompilation=" + m_cacheUnitTestCompilation + ",\n" +
+				"\tm_incrementalCompilation=" + m_incrementalCompilation + ",\n" +
+				"\tm_syntaxPreCheck=" + m_syntaxPreCheck + ",\n" +
+				"\tm_twoPhaseCompilation=" + m_twoPhaseCompilation + ",\n" +
+				"\tm_workerMaxHeapMegabytes=" + m_workerMaxHeapMegabytes + ",\n" +
+				"\tm_timeoutMultiplier=" + m_timeoutMultiplier + ",\n" +
+				"\tm_minimumTimeoutMillis=" + m_minimumTimeoutMillis + ",\n" +
+				"\tm_failureSignature=" + m_failureSignature + ",\n" +
+				"\tm_failureMessagePattern='" + m_failureMessagePattern + "',\n" +
+				"\tm_failureSignatureFrames=" + m_failureSignatureFrames + ",\n" +
+				"\tm_jUnitLauncher=" + m_jUnitLauncher + ",\n" +
+				"\tm_outcomeCacheSize=" + m_outcomeCacheSize + ",\n" +
+				"\tm_persistentOutcomeCache=" + m_persistentOutcomeCache + ",\n" +
+				"\tm_renderedSourceCache=" + m_renderedSourceCache + ",\n" +
+				"\tm_speculativeExecution=" + m_speculativeExecution + ",\n" +
+				"\tm_combineFailingComplements=" + m_combineFailingComplements + ",\n" +
+				"\tm_subtreeParallelism=" + m_subtreeParallelism + ",\n" +
+				"\tm_graphDatabaseType=" + m_graphDatabaseType + ",\n" +
+				"\tm_graphDatabaseUrl='" + m_graphDatabaseUrl + "',\n" +
+				"\tm_graphDatabaseUser='" + m_graphDatabaseUser + "',\n" +
+				"\tm_graphDatabaseMaxConnectionPoolSize=" + m_graphDatabaseMaxConnectionPoolSize + ",\n" +
 				'}';
 	}
 
     public enum ECompilationType {
 		COMMAND_LINE,
+		IN_MEMORY,
+		IN_MEMORY_ECJ,
+		PROCESS
+	}
+
+	public enum EGraphDatabaseType {
+		NEO4J,
 		IN_MEMORY
 	}
 }
@@ -0,0 +1,150 @@
+package testexecutor;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared runner for the unit tests executed in memory.
+ * The number of concurrently running tests is bounded. A watchdog interrupts tests that exceed their timeout and
+ * stops their thread if it does not terminate within a grace period. Threads that can not be stopped are reported as leaked.
+ * A test holds its permit until its thread actually finished it. The permit of a leaked thread is released once the
+ * watchdog gives up on it, and the next test runs on a new thread, so hung tests can not block the runner.
+ */
+public class TestRunner {
+
+	private static final long STOP_GRACE_MILLIS = 1000;
+
+	private final Semaphore m_permits;
+	private final ExecutorService m_threads = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "test-runner");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final ScheduledExecutorService m_watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "test-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final AtomicInteger m_liveThreads = new AtomicInteger();
+	private final AtomicInteger m_stoppedThreads = new AtomicInteger();
+	private final Set<TestTask<?>> m_leakedTasks = ConcurrentHashMap.newKeySet();
+
+	private class TestTask<T> implements Callable<T> {
+		private final Callable<T> m_test;
+		private volatile Thread m_thread;
+		// set by the thread running the test or by the runner if the test was cancelled before it started
+		private final AtomicBoolean m_started = new AtomicBoolean();
+		private final AtomicBoolean m_permitReleased = new AtomicBoolean();
+
+		TestTask(Callable<T> test) {
+			m_test = test;
+		}
+
+		// the permit is released by the finished test, the runner or the watchdog, whichever comes first
+		void releasePermit() {
+			if (m_permitReleased.compareAndSet(false, true)) {
+				m_permits.release();
+			}
+		}
+
+		@Override
+		public T call() throws Exception {
+			if (!m_started.compareAndSet(false, true)) {
+				return null;
+			}
+			m_thread = Thread.currentThread();
+			m_liveThreads.incrementAndGet();
+			try {
+				return m_test.call();
+			} finally {
+				// the stop of the watchdog can arrive before the thread is cleared, the bookkeeping is done regardless
+				try {
+					// the watchdog stops the thread only while it runs this test
+					synchronized (this) {
+						m_thread = null;
+					}
+				} finally {
+					m_liveThreads.decrementAndGet();
+					releasePermit();
+					// the interruption of a cancelled test must not affect the next test on this thread
+					Thread.interrupted();
+				}
+			}
+		}
+	}
+
+	public TestRunner(int maxConcurrentTests) {
+		m_permits = new Semaphore(Math.max(1, maxConcurrentTests));
+	}
+
+	/**
+	 * Runs the test on a thread of the runner and waits for its result.
+	 *
+	 * @throws ExecutionException if the test threw an exception
+	 * @throws TimeoutException   if the test did not finish in time; it is interrupted and stopped by the watchdog
+	 */
+	public <T> T run(Callable<T> test, long timeoutMillis) throws ExecutionException, TimeoutException, InterruptedException {
+		m_permits.acquire();
+		TestTask<T> task = new TestTask<>(test);
+		Future<T> future;
+		try {
+			future = m_threads.submit(task);
+		} catch (RuntimeException e) {
+			m_permits.release();
+			throw e;
+		}
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | InterruptedException e) {
+			future.cancel(true);
+			if (task.m_started.compareAndSet(false, true)) {
+				// the test never started, so its thread will not release the permit
+				task.releasePermit();
+			} else {
+				m_watchdog.schedule(() -> stop(task), STOP_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			throw e;
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	private void stop(TestTask<?> task) {
+		synchronized (task) {
+			Thread thread = task.m_thread;
+			if (thread == null) {
+				return;
+			}
+			try {
+				thread.stop();
+				m_stoppedThreads.incrementAndGet();
+			} catch (UnsupportedOperationException | SecurityException e) {
+				// the thread can not be stopped on this JVM
+			}
+		}
+		m_watchdog.schedule(() -> {
+			if (task.m_thread != null) {
+				// the watchdog gives up on the thread, the cached pool starts a new thread for the next test
+				m_leakedTasks.add(task);
+				task.releasePermit();
+			}
+		}, STOP_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	// number of threads currently running a test, including leaked threads
+	public int getLiveThreads() {
+		return m_liveThreads.get();
+	}
+
+	// number of threads of timed out tests that are still running
+	public int getLeakedThreads() {
+		m_leakedTasks.removeIf(task -> task.m_thread == null);
+		return m_leakedTasks.size();
+	}
+
+	// number of threads of timed out tests that were stopped by the watchdog
+	public int getStoppedThreads() {
+		return m_stoppedThreads.get();
+	}
+}
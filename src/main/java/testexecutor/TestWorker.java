@@ -0,0 +1,178 @@
+package testexecutor;
+
+import compiler.CompilationSession;
+import compiler.ICompiler;
+import org.mdkt.compiler.CompilationException;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+
+/**
+ * Long-lived worker JVM of the {@link TestWorkerPool}.
+ * Reads the sources of a configuration from stdin, compiles them in memory, runs the unit test
+ * and writes the outcome to stdout. Output of the tested code is redirected to stderr.
+ * For a failing test, the outcome contains the exception class, message and stack frames, so the failure signature
+ * can be matched by the executor.
+ * The worker terminates when stdin is closed.
+ */
+public class TestWorker {
+
+	static final String RESULT_OK = "OK";
+	static final String RESULT_COMPILATION_ERROR = "COMPILATION_ERROR";
+	static final String RESULT_EXCEPTION = "EXCEPTION";
+	static final String RESULT_TIMEOUT = "TIMEOUT";
+
+	public static void main(String[] args) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		System.setOut(System.err);
+
+		CompilationSession session = new CompilationSession();
+		ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "test-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		while (true) {
+			String unitTestMethod;
+			try {
+				unitTestMethod = readString(in);
+			} catch (EOFException e) {
+				return;
+			}
+			long timeoutMillis = in.readLong();
+			boolean checkBeforeGenerate = in.readBoolean();
+			ICompiler compiler = session.newCompiler().ignoreWarnings();
+			if (checkBeforeGenerate) {
+				compiler.checkBeforeGenerate();
+			}
+			int numberOfSources = in.readInt();
+			for (int i = 0; i < numberOfSources; i++) {
+				String className = readString(in);
+				String code = readString(in);
+				try {
+					compiler.addSource(className, code);
+				} catch (Exception e) {
+					throw new IOException("Unable to add source " + className, e);
+				}
+			}
+
+			Outcome outcome = execute(compiler, unitTestMethod, timeoutMillis, executor);
+			Runtime runtime = Runtime.getRuntime();
+			writeString(out, outcome.type);
+			writeString(out, outcome.message);
+			writeFailure(out, outcome.failure);
+			out.writeLong(outcome.testMillis);
+			out.writeLong(runtime.totalMemory() - runtime.freeMemory());
+			out.writeLong(runtime.maxMemory());
+			out.flush();
+		}
+	}
+
+	private static class Outcome {
+		final String type;
+		final String message;
+		// the exception the unit test failed with
+		final Throwable failure;
+		// duration of the unit test run without the compilation, -1 if the unit test was not run
+		final long testMillis;
+
+		Outcome(String type, String message, Throwable failure) {
+			this(type, message, failure, -1);
+		}
+
+		Outcome(String type, String message, Throwable failure, long testMillis) {
+			this.type = type;
+			this.message = message;
+			this.failure = failure;
+			this.testMillis = testMillis;
+		}
+	}
+
+	private static Outcome execute(ICompiler compiler, String unitTestMethod, long timeoutMillis, ExecutorService executor) {
+		try {
+			compiler.compileAll();
+		} catch (CompilationException e) {
+			return new Outcome(RESULT_COMPILATION_ERROR, String.valueOf(e.getMessage()), null);
+		} catch (Exception e) {
+			return new Outcome(RESULT_EXCEPTION, e.toString(), null);
+		}
+
+		String[] unitTestName = unitTestMethod.split("#");
+		try {
+			Class<?> unitTestClass = compiler.getClassloader().loadClass(unitTestName[0]);
+			Object unitTest = ATestExecutor.instantiateUnitTest(unitTestClass);
+			Method testingMethod;
+			try {
+				testingMethod = unitTestClass.getDeclaredMethod(unitTestName[1]);
+			} catch (NoSuchMethodException e) {
+				// method might be declared on a parent class
+				testingMethod = unitTestClass.getMethod(unitTestName[1]);
+			}
+			testingMethod.setAccessible(true);
+
+			Method finalTestingMethod = testingMethod;
+			long start = System.nanoTime();
+			Future<?> future = executor.submit(() -> finalTestingMethod.invoke(unitTest));
+			try {
+				future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+				return new Outcome(RESULT_OK, "", null, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				return new Outcome(RESULT_TIMEOUT, "Test timed out after " + timeoutMillis + "ms", null, timeoutMillis);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause() instanceof InvocationTargetException ? e.getCause().getCause() : e.getCause();
+				return new Outcome(RESULT_EXCEPTION, String.valueOf(cause), cause, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			}
+		} catch (Throwable t) {
+			return new Outcome(RESULT_EXCEPTION, t.toString(), null);
+		}
+	}
+
+	// writes the class, message and the class and method names of the stack frames of the failure, line numbers are not needed
+	private static void writeFailure(DataOutputStream out, Throwable failure) throws IOException {
+		out.writeBoolean(failure != null);
+		if (failure == null) {
+			return;
+		}
+		writeString(out, failure.getClass().getName());
+		out.writeBoolean(failure.getMessage() != null);
+		if (failure.getMessage() != null) {
+			writeString(out, failure.getMessage());
+		}
+		StackTraceElement[] stackTrace = failure.getStackTrace();
+		out.writeInt(stackTrace.length);
+		for (StackTraceElement frame : stackTrace) {
+			writeString(out, frame.getClassName());
+			writeString(out, frame.getMethodName());
+		}
+	}
+
+	static TestWorkerPool.Failure readFailure(DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		String exceptionClass = readString(in);
+		String message = in.readBoolean() ? readString(in) : null;
+		StackTraceElement[] stackTrace = new StackTraceElement[in.readInt()];
+		for (int i = 0; i < stackTrace.length; i++) {
+			stackTrace[i] = new StackTraceElement(readString(in), readString(in), null, -1);
+		}
+		return new TestWorkerPool.Failure(exceptionClass, message, stackTrace);
+	}
+
+	static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
@@ -0,0 +1,190 @@
+package testexecutor;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of long-lived {@link TestWorker} JVMs that compile and run configurations out of process.
+ * The sources are sent over the stdin pipe of the worker, so no files are written.
+ * A worker is replaced after it hung, crashed or its heap usage exceeded the configured share of its maximum heap.
+ */
+public class TestWorkerPool implements Closeable {
+
+	// time for the compilation on top of the test timeout, before a worker is considered hung
+	private static final long COMPILATION_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+	private static final double MAX_HEAP_USAGE = 0.75;
+
+	private final int m_maxHeapMegabytes;
+	private final BlockingQueue<Worker> m_idleWorkers = new LinkedBlockingQueue<>();
+	private final List<Worker> m_workers = new CopyOnWriteArrayList<>();
+	private final ExecutorService m_readers = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "test-worker-reader");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final AtomicInteger m_restarts = new AtomicInteger();
+	private volatile boolean m_closed = false;
+
+	/**
+	 * Outcome of a test executed by a worker.
+	 */
+	public static class Result {
+		public final String type;
+		public final String message;
+		// the exception the unit test failed with, null if the test did not fail with an exception
+		public final Failure failure;
+		// duration of the unit test run in the worker, -1 if the unit test was not run
+		public final long testMillis;
+		// the worker has to be replaced after the test
+		final boolean recycle;
+
+		Result(String type, String message, boolean recycle) {
+			this(type, message, null, -1, recycle);
+		}
+
+		Result(String type, String message, Failure failure, long testMillis, boolean recycle) {
+			this.type = type;
+			this.message = message;
+			this.failure = failure;
+			this.testMillis = testMillis;
+			this.recycle = recycle;
+		}
+	}
+
+	// the exception of a failing test in a worker, its stack frames only hold class and method names
+	public static class Failure {
+		public final String exceptionClass;
+		public final String message;
+		public final StackTraceElement[] stackTrace;
+
+		Failure(String exceptionClass, String message, StackTraceElement[] stackTrace) {
+			this.exceptionClass = exceptionClass;
+			this.message = message;
+			this.stackTrace = stackTrace;
+		}
+	}
+
+	private static class Worker {
+		final Process process;
+		final DataOutputStream out;
+		final DataInputStream in;
+
+		Worker(Process process) {
+			this.process = process;
+			this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+			this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+		}
+	}
+
+	public TestWorkerPool(int numberOfWorkers, int maxHeapMegabytes) throws IOException {
+		m_maxHeapMegabytes = maxHeapMegabytes;
+		for (int i = 0; i < numberOfWorkers; i++) {
+			m_idleWorkers.add(startWorker());
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+	}
+
+	private Worker startWorker() throws IOException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder pb = new ProcessBuilder(java, "-Xmx" + m_maxHeapMegabytes + "m", "-Dfile.encoding=UTF-8",
+				"-cp", System.getProperty("java.class.path"), TestWorker.class.getName());
+		pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+		Worker worker = new Worker(pb.start());
+		m_workers.add(worker);
+		return worker;
+	}
+
+	/**
+	 * Compiles the sources and runs the unit test in the next idle worker.
+	 * Blocks until a worker is available.
+	 */
+	public Result execute(Map<String, String> sources, String unitTestMethod, long timeoutMillis, boolean checkBeforeGenerate) throws InterruptedException, IOException {
+		Worker worker = m_idleWorkers.take();
+		long responseTimeout = timeoutMillis + COMPILATION_TIMEOUT_MILLIS;
+		Future<Result> response;
+		try {
+			TestWorker.writeString(worker.out, unitTestMethod);
+			worker.out.writeLong(timeoutMillis);
+			worker.out.writeBoolean(checkBeforeGenerate);
+			worker.out.writeInt(sources.size());
+			for (Map.Entry<String, String> source : sources.entrySet()) {
+				TestWorker.writeString(worker.out, source.getKey());
+				TestWorker.writeString(worker.out, source.getValue());
+			}
+			worker.out.flush();
+			response = m_readers.submit(() -> readResult(worker));
+		} catch (IOException e) {
+			release(worker, true);
+			return new Result(TestWorker.RESULT_EXCEPTION, "Worker terminated: " + e, true);
+		}
+
+		try {
+			Result result = response.get(responseTimeout, TimeUnit.MILLISECONDS);
+			release(worker, result.recycle);
+			return result;
+		} catch (TimeoutException e) {
+			release(worker, true);
+			return new Result(TestWorker.RESULT_TIMEOUT, "Worker did not respond within " + responseTimeout + "ms", true);
+		} catch (ExecutionException e) {
+			// the worker crashed, e.g. the tested code called System.exit
+			release(worker, true);
+			return new Result(TestWorker.RESULT_EXCEPTION, "Worker terminated: " + e.getCause(), true);
+		} catch (InterruptedException e) {
+			// the result is no longer needed, but the worker stays usable once it answered
+			m_readers.submit(() -> {
+				try {
+					release(worker, response.get(responseTimeout, TimeUnit.MILLISECONDS).recycle);
+				} catch (Exception ex) {
+					release(worker, true);
+				}
+				return null;
+			});
+			throw e;
+		}
+	}
+
+	private static Result readResult(Worker worker) throws IOException {
+		String type = TestWorker.readString(worker.in);
+		String message = TestWorker.readString(worker.in);
+		Failure failure = TestWorker.readFailure(worker.in);
+		long testMillis = worker.in.readLong();
+		long usedHeap = worker.in.readLong();
+		long maxHeap = worker.in.readLong();
+		// a timed out test keeps running inside the worker
+		return new Result(type, message, failure, testMillis, TestWorker.RESULT_TIMEOUT.equals(type) || usedHeap > MAX_HEAP_USAGE * maxHeap);
+	}
+
+	// returns the worker to the pool or replaces it by a new one
+	private void release(Worker worker, boolean recycle) throws IOException {
+		if (!recycle) {
+			m_idleWorkers.add(worker);
+			return;
+		}
+		worker.process.destroyForcibly();
+		m_workers.remove(worker);
+		if (!m_closed) {
+			m_restarts.incrementAndGet();
+			m_idleWorkers.add(startWorker());
+		}
+	}
+
+	// number of workers that were replaced after a hang, crash or memory bloat
+	public int getRestarts() {
+		return m_restarts.get();
+	}
+
+	@Override
+	public void close() {
+		m_closed = true;
+		List<Worker> workers = new ArrayList<>(m_workers);
+		for (Worker worker : workers) {
+			worker.process.destroyForcibly();
+		}
+		m_workers.clear();
+		m_readers.shutdownNow();
+	}
+}
@@ -0,0 +1,84 @@
+package testexecutor;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+
+/**
+ * Runs a single unit test method on the JUnit Platform, so lifecycle methods, rules and parameter resolvers of the
+ * JUnit Jupiter and JUnit 4 engines are applied.
+ * The launcher and its test engines are created once and shared by all tests. The discovery request selects the test
+ * class loaded by the class loader of the compiled configuration, so it is built for every run.
+ */
+public class UnitTestLauncher {
+
+	private final Launcher m_launcher = LauncherFactory.create(LauncherConfig.builder()
+			.enableTestExecutionListenerAutoRegistration(false)
+			.build());
+
+	private static class ResultListener implements TestExecutionListener {
+		private int m_executedTests = 0;
+		private Throwable m_failure;
+
+		@Override
+		public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+			if (testIdentifier.isTest()) {
+				m_executedTests++;
+			}
+			// the failure of the test itself is reported before the failure of its containers
+			if (m_failure == null && result.getStatus() != TestExecutionResult.Status.SUCCESSFUL) {
+				m_failure = result.getThrowable().orElse(null);
+			}
+		}
+	}
+
+	/**
+	 * Runs the unit test method in the current thread.
+	 *
+	 * @param unitTestMethod fully qualified name of the test method, e.g. package.Class#method
+	 * @return the exception the test failed with, or null if it passed
+	 * @throws TestingException if the test class was not found or the test method was not executed
+	 */
+	public Throwable run(ClassLoader classLoader, String unitTestMethod) {
+		String[] unitTestName = unitTestMethod.split("#", 2);
+		Class<?> unitTestClass;
+		try {
+			unitTestClass = classLoader.loadClass(unitTestName[0]);
+		} catch (ClassNotFoundException e) {
+			throw new TestingException("Unit test class " + unitTestName[0] + " not found", e);
+		}
+		// the method name might be followed by its parameter types, e.g. method(int, java.lang.String)
+		String methodName = unitTestName.length > 1 ? unitTestName[1] : "";
+		int parameters = methodName.indexOf('(');
+		LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+				.selectors(parameters < 0
+						? selectMethod(unitTestClass, methodName)
+						: selectMethod(unitTestClass, methodName.substring(0, parameters),
+						methodName.substring(parameters + 1, methodName.lastIndexOf(')'))))
+				.configurationParameter("junit.jupiter.extensions.autodetection.enabled", "false")
+				.configurationParameter("junit.jupiter.execution.parallel.enabled", "false")
+				.build();
+
+		// the engines load the selected test class with the context class loader
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(classLoader);
+		ResultListener listener = new ResultListener();
+		try {
+			m_launcher.execute(request, listener);
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+		if (listener.m_executedTests == 0) {
+			throw new TestingException("Unit test " + unitTestMethod + " was not executed", listener.m_failure);
+		}
+		return listener.m_failure;
+	}
+}
@@ -0,0 +1,137 @@
+package testexecutor.gdd;
+
+import fragment.HDDCodeFragment;
+import org.eclipse.jdt.core.dom.*;
+import utility.FileUtility;
+import utility.JavaParserUtility;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The node properties and edge types shared by the graph stores.
+ */
+public abstract class AGraphDB implements IGraphDB {
+
+	protected static final String ATTR_DEPENDENCY_TYPE = "dependencyType";
+
+	protected static final String ATTR_FILENAME = "fileName";
+	protected static final String ATTR_CODE = "code";
+	protected static final String ATTR_NODE_TYPE = "nodeType";
+	protected static final String ATTR_METHOD_NAME = "methodName";
+	protected static final String ATTR_BINDING_KEY = "bindingKey";
+	protected static final String ATTR_EXPRESSION_BINDING_KEY = "expressionBindingKey";
+	protected static final String ATTR_CLASS_NAME = "className";
+	protected static final String ATTR_SIMPLE_NAME = "simpleName";
+	protected static final String ATTR_IMPORT_NAME = "importName";
+	protected static final String ATTR_PACKAGE_NAME = "packageName";
+
+	protected static final String DEPENDENCY_TYPE_AST_TREE = "AST_TREE";
+	protected static final String DEPENDENCY_TYPE_INSTANTIATION_TO_DECLARATION = "INSTANTIATION_TO_DECLARATION";
+	protected static final String DEPENDENCY_TYPE_IMPORT_TO_UNIT = "IMPORT_TO_UNIT";
+	protected static final String DEPENDENCY_TYPE_CLASS_TO_IMPORT = "CLASS_TO_IMPORT";
+	protected static final String DEPENDENCY_TYPE_CLASS_TO_UNIT_IN_PACKAGE = "CLASS_TO_UNIT_IN_PACKAGE";
+	protected static final String DEPENDENCY_TYPE_METHOD_INVOCATION_TO_DECLARATION = "METHOD_INVOCATION_TO_DECLARATION";
+
+	protected static final String GUARANTEE_TYPE_UNIT_TO_PACKAGE = "UNIT_TO_PACKAGE";
+	protected static final String GUARANTEE_TYPE_UNIT_TO_TYPE_DEFINITION = "UNIT_TO_TYPE_DEFINITION";
+	protected static final String GUARANTEE_TYPE_PACKAGE_INTERNAL = "PACKAGE_INTERNAL";
+
+	private final CrossTreeDependencyIndex m_crossTreeDependencyIndex = new CrossTreeDependencyIndex();
+
+	@Override
+	public void calculateCrossTreeDependencies() {
+		// calculate cross tree dependencies depending on node types with the hash indexes built while adding the nodes
+		for (String dependencyType : CrossTreeDependencyIndex.getDependencyTypes()) {
+			long start = System.nanoTime();
+			List<long[]> dependencies = m_crossTreeDependencyIndex.getDependencies(dependencyType);
+			long joinMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			start = System.nanoTime();
+			addDependencies(dependencyType, dependencies);
+			long writeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			System.out.println("Added " + dependencies.size() + " " + dependencyType.toLowerCase().replace('_', ' ')
+					+ " cross tree dependencies (join: " + joinMillis + " ms, write: " + writeMillis + " ms).");
+		}
+		m_crossTreeDependencyIndex.clear();
+	}
+
+	// adds DEPENDS_ON edges of the given type, each dependency is a pair of the dependent node id and the target node id
+	protected abstract void addDependencies(String dependencyType, List<long[]> dependencies);
+
+	// the stores call this for every node they add, once the node is created
+	protected void addToCrossTreeDependencyIndex(long nodeId, Map<String, Object> fragmentProperties) {
+		m_crossTreeDependencyIndex.add(nodeId, fragmentProperties);
+	}
+
+	// the properties of the node of a fragment, null for fragments without tokens
+	protected Map<String, Object> getFragmentProperties(HDDCodeFragment fragment) {
+		if (fragment.getTokens().isEmpty()) {
+			return null;
+		}
+		Map<String, Object> fragmentProperties = new HashMap<>();
+		JavaParserUtility.Token token = fragment.getTokens().get(0);
+		ASTNode node = token.node;
+
+		fragmentProperties.put(ATTR_FILENAME, fragment.getPath());
+		fragmentProperties.put(ATTR_CODE, shortenString(node.toString(), 100));
+		fragmentProperties.put(ATTR_NODE_TYPE, node.getClass().getSimpleName());
+		fragmentProperties.put(ATTR_CLASS_NAME, FileUtility.fileNameToClassName(fragment.getPath()));
+
+		addNodeSpecificAttribute(fragmentProperties, node);
+		return fragmentProperties;
+	}
+
+	private String shortenString(String str, int length) {
+		if (str == null) {
+			return null;
+		}
+		if (str.length() <= length) {
+			return str;
+		}
+		return str.substring(0, length - 3) + "...";
+	}
+
+	private void addNodeSpecificAttribute(Map<String, Object> fragmentProperties, ASTNode node) {
+		if (node instanceof MethodDeclaration) {
+			MethodDeclaration n = ((MethodDeclaration) node);
+			fragmentProperties.put(ATTR_METHOD_NAME, n.getName().toString());
+			IMethodBinding methodBinding = (IMethodBinding) n.getName().resolveBinding();
+			if (methodBinding != null) {
+				fragmentProperties.put(ATTR_BINDING_KEY, methodBinding.getKey());
+			}
+		} else if (node instanceof ClassInstanceCreation) {
+			fragmentProperties.put(ATTR_SIMPLE_NAME, ((ClassInstanceCreation) node).getType().toString());
+		} else if (node instanceof TypeDeclaration) {
+			fragmentProperties.put(ATTR_SIMPLE_NAME, ((TypeDeclaration) node).getName().toString());
+		} else if (node instanceof SimpleType) {
+			fragmentProperties.put(ATTR_SIMPLE_NAME, ((SimpleType) node).getName().toString());
+		} else if (node instanceof MethodInvocation) {
+			MethodInvocation n = (MethodInvocation) node;
+			fragmentProperties.put(ATTR_METHOD_NAME, n.getName().toString());
+			IMethodBinding methodBinding = (IMethodBinding) n.getName().resolveBinding();
+			if (methodBinding != null) {
+				fragmentProperties.put(ATTR_BINDING_KEY, methodBinding.getKey());
+			}
+			Expression expr = n.getExpression();
+			if (expr instanceof SimpleName) {
+				fragmentProperties.put(ATTR_SIMPLE_NAME, expr.toString());
+				IBinding binding = ((SimpleName) expr).resolveBinding();
+				if (binding != null) {
+					fragmentProperties.put(ATTR_EXPRESSION_BINDING_KEY, binding.getKey());
+				}
+			}
+		} else if (node instanceof ImportDeclaration) {
+			fragmentProperties.put(ATTR_IMPORT_NAME, ((ImportDeclaration) node).getName().toString());
+		} else if (node instanceof PackageDeclaration) {
+			fragmentProperties.put(ATTR_PACKAGE_NAME, ((PackageDeclaration) node).getName().toString());
+		} else if (node instanceof SimpleName) {
+			fragmentProperties.put(ATTR_SIMPLE_NAME, node.toString());
+			IBinding binding = ((SimpleName) node).resolveBinding();
+			if (binding != null) {
+				fragmentProperties.put(ATTR_BINDING_KEY, binding.getKey());
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package testexecutor.gdd;
+
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static testexecutor.gdd.AGraphDB.*;
+
+/**
+ * Hash indexes on the properties of the fragment nodes that cross tree dependencies are derived from.
+ * The nodes are added while the fragments are written to the graph, afterwards every type of cross tree dependency is
+ * a hash join on the binding key, the simple name or the class name in the package, so only the resulting edges have
+ * to be written to the graph store.
+ */
+public class CrossTreeDependencyIndex {
+
+	private static final List<Join> JOINS = Arrays.asList(
+			new Join(DEPENDENCY_TYPE_METHOD_INVOCATION_TO_DECLARATION,
+					MethodInvocation.class, p -> (String) p.get(ATTR_BINDING_KEY),
+					MethodDeclaration.class, p -> (String) p.get(ATTR_BINDING_KEY)),
+			new Join(DEPENDENCY_TYPE_INSTANTIATION_TO_DECLARATION,
+					ClassInstanceCreation.class, p -> (String) p.get(ATTR_SIMPLE_NAME),
+					TypeDeclaration.class, p -> (String) p.get(ATTR_SIMPLE_NAME)),
+			new Join(DEPENDENCY_TYPE_IMPORT_TO_UNIT,
+					ImportDeclaration.class, p -> (String) p.get(ATTR_IMPORT_NAME),
+					CompilationUnit.class, p -> (String) p.get(ATTR_CLASS_NAME)),
+			new Join(DEPENDENCY_TYPE_CLASS_TO_IMPORT,
+					SimpleType.class, p -> joinKey(p.get(ATTR_CLASS_NAME), p.get(ATTR_SIMPLE_NAME)),
+					ImportDeclaration.class, p -> joinKey(p.get(ATTR_CLASS_NAME), lastSegment((String) p.get(ATTR_IMPORT_NAME)))),
+			new Join(DEPENDENCY_TYPE_CLASS_TO_UNIT_IN_PACKAGE,
+					SimpleType.class, CrossTreeDependencyIndex::getClassNameInPackage,
+					CompilationUnit.class, p -> (String) p.get(ATTR_CLASS_NAME)));
+
+	// the properties of the nodes of each joined node type, by node id
+	private final Map<String, Map<Long, Map<String, Object>>> m_nodesByType = new HashMap<>();
+
+	public CrossTreeDependencyIndex() {
+		for (Join join : JOINS) {
+			m_nodesByType.put(join.m_dependentType, new LinkedHashMap<>());
+			m_nodesByType.put(join.m_targetType, new LinkedHashMap<>());
+		}
+	}
+
+	// the types of cross tree dependencies in the order they are calculated
+	public static List<String> getDependencyTypes() {
+		List<String> dependencyTypes = new ArrayList<>();
+		for (Join join : JOINS) {
+			dependencyTypes.add(join.m_dependencyType);
+		}
+		return dependencyTypes;
+	}
+
+	public synchronized void add(long nodeId, Map<String, Object> properties) {
+		Map<Long, Map<String, Object>> nodes = m_nodesByType.get((String) properties.get(ATTR_NODE_TYPE));
+		if (nodes != null) {
+			nodes.put(nodeId, properties);
+		}
+	}
+
+	// the dependencies of the given type as pairs of the dependent node id and the target node id
+	public synchronized List<long[]> getDependencies(String dependencyType) {
+		for (Join join : JOINS) {
+			if (join.m_dependencyType.equals(dependencyType)) {
+				return join.calculate(m_nodesByType.get(join.m_dependentType), m_nodesByType.get(join.m_targetType));
+			}
+		}
+		throw new IllegalArgumentException("Unknown cross tree dependency type " + dependencyType);
+	}
+
+	public synchronized void clear() {
+		m_nodesByType.values().forEach(Map::clear);
+	}
+
+	// the class name of a simple type if it is another class in the package of its own class
+	private static String getClassNameInPackage(Map<String, Object> properties) {
+		String className = (String) properties.get(ATTR_CLASS_NAME);
+		String simpleName = (String) properties.get(ATTR_SIMPLE_NAME);
+		if (className == null || simpleName == null) {
+			return null;
+		}
+		String classNameInPackage = className.substring(0, className.lastIndexOf('.') + 1) + simpleName;
+		return classNameInPackage.equals(className) ? null : classNameInPackage;
+	}
+
+	private static String joinKey(Object first, Object second) {
+		if (first == null || second == null) {
+			return null;
+		}
+		return first + " " + second;
+	}
+
+	private static String lastSegment(String name) {
+		if (name == null) {
+			return null;
+		}
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
+	// a dependency from every node of the dependent type to every node of the target type with the same key
+	private static class Join {
+
+		private final String m_dependencyType;
+		private final String m_dependentType;
+		private final Function<Map<String, Object>, String> m_dependentKey;
+		private final String m_targetType;
+		private final Function<Map<String, Object>, String> m_targetKey;
+
+		private Join(String dependencyType, Class<? extends ASTNode> dependentType, Function<Map<String, Object>, String> dependentKey,
+					 Class<? extends ASTNode> targetType, Function<Map<String, Object>, String> targetKey) {
+			m_dependencyType = dependencyType;
+			m_dependentType = dependentType.getSimpleName();
+			m_dependentKey = dependentKey;
+			m_targetType = targetType.getSimpleName();
+			m_targetKey = targetKey;
+		}
+
+		private List<long[]> calculate(Map<Long, Map<String, Object>> dependentNodes, Map<Long, Map<String, Object>> targetNodes) {
+			Map<String, List<Long>> targetsByKey = new HashMap<>();
+			for (Map.Entry<Long, Map<String, Object>> target : targetNodes.entrySet()) {
+				String key = m_targetKey.apply(target.getValue());
+				if (key != null) {
+					targetsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(target.getKey());
+				}
+			}
+
+			List<long[]> dependencies = new ArrayList<>();
+			for (Map.Entry<Long, Map<String, Object>> dependent : dependentNodes.entrySet()) {
+				String key = m_dependentKey.apply(dependent.getValue());
+				if (key == null) {
+					continue;
+				}
+				for (long target : targetsByKey.getOrDefault(key, Collections.emptyList())) {
+					dependencies.add(new long[]{dependent.getKey(), target});
+				}
+			}
+			return dependencies;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package testexecutor.gdd;
+
+import fragment.GraphCodeFragment;
+import utility.JavaParserUtility;
+
+import java.util.*;
+
+/**
+ * The files of the fragments of a DDmin level and the fragments that are excluded together with each active fragment.
+ * The graph does not change during a level, so the free fragments that depend on an active fragment, directly or
+ * transitively, are queried once per level and stored as a bitset over the dense ordinals of the fragments.
+ * The exclusion set of a configuration is the union of the bitsets of its deselected active fragments,
+ * and only the files that contain excluded fragments are rendered again.
+ */
+public class DependentClosureIndex {
+
+	// the excluded fragments of each active node, including the node itself
+	private final Map<Long, BitSet> m_closures = new HashMap<>();
+	private final String[] m_fileNames;
+	// the fragments of each file
+	private final BitSet[] m_fileFragments;
+	// the ordinals of the fragments of the tokens of each file and their code, sorted by their position
+	private final int[][] m_tokenOrdinals;
+	private final String[][] m_tokenCodes;
+	// the file of each fragment
+	private final int[] m_fileOfFragment;
+	// all files with all of their fragments
+	private final Map<String, String> m_renderedFiles = new HashMap<>();
+
+	public DependentClosureIndex(Map<Long, GraphCodeFragment> fragments, Map<Long, Set<Long>> dependentNodeIds) {
+		Map<Long, Integer> ordinals = new HashMap<>();
+		Map<String, List<GraphCodeFragment>> fragmentsByFile = new HashMap<>();
+		for (Map.Entry<Long, GraphCodeFragment> entry : fragments.entrySet()) {
+			ordinals.put(entry.getKey(), ordinals.size());
+			fragmentsByFile.computeIfAbsent(entry.getValue().getPath(), k -> new ArrayList<>()).add(entry.getValue());
+		}
+
+		for (Map.Entry<Long, Set<Long>> entry : dependentNodeIds.entrySet()) {
+			BitSet closure = new BitSet(ordinals.size());
+			Integer ordinal = ordinals.get(entry.getKey());
+			if (ordinal != null) {
+				closure.set(ordinal);
+			}
+			for (long dependentNodeId : entry.getValue()) {
+				ordinal = ordinals.get(dependentNodeId);
+				if (ordinal != null) {
+					closure.set(ordinal);
+				}
+			}
+			m_closures.put(entry.getKey(), closure);
+		}
+
+		int numberOfFiles = fragmentsByFile.size();
+		m_fileNames = new String[numberOfFiles];
+		m_fileFragments = new BitSet[numberOfFiles];
+		m_tokenOrdinals = new int[numberOfFiles][];
+		m_tokenCodes = new String[numberOfFiles][];
+		m_fileOfFragment = new int[ordinals.size()];
+		int file = 0;
+		for (Map.Entry<String, List<GraphCodeFragment>> entry : fragmentsByFile.entrySet()) {
+			BitSet fileFragments = new BitSet(ordinals.size());
+			List<Map.Entry<Integer, JavaParserUtility.Token>> tokens = new ArrayList<>();
+			for (GraphCodeFragment fragment : entry.getValue()) {
+				int ordinal = ordinals.get(fragment.getFragmentNumber());
+				fileFragments.set(ordinal);
+				m_fileOfFragment[ordinal] = file;
+				for (JavaParserUtility.Token token : fragment.getTokens()) {
+					tokens.add(new AbstractMap.SimpleEntry<>(ordinal, token));
+				}
+			}
+			tokens.sort(Comparator.comparing(t -> t.getValue().start));
+
+			m_fileNames[file] = entry.getKey();
+			m_fileFragments[file] = fileFragments;
+			m_tokenOrdinals[file] = tokens.stream().mapToInt(Map.Entry::getKey).toArray();
+			m_tokenCodes[file] = tokens.stream().map(t -> t.getValue().code).toArray(String[]::new);
+			m_renderedFiles.put(entry.getKey(), render(file, new BitSet()));
+			file++;
+		}
+	}
+
+	// the active nodes of the level
+	public Set<Long> getActiveNodeIds() {
+		return m_closures.keySet();
+	}
+
+	// the source files of the level without the given active nodes and the free nodes that depend on them
+	public Map<String, String> renderFiles(Set<Long> deselectedActiveNodes) {
+		BitSet excluded = new BitSet();
+		for (long nodeId : deselectedActiveNodes) {
+			BitSet closure = m_closures.get(nodeId);
+			if (closure != null) {
+				excluded.or(closure);
+			}
+		}
+
+		// only the files with excluded fragments are rendered, the other files are rendered with all of their fragments
+		BitSet affectedFiles = new BitSet(m_fileNames.length);
+		for (int ordinal = excluded.nextSetBit(0); ordinal >= 0; ordinal = excluded.nextSetBit(ordinal + 1)) {
+			affectedFiles.set(m_fileOfFragment[ordinal]);
+		}
+		Map<String, String> files = new HashMap<>(m_renderedFiles);
+		for (int file = affectedFiles.nextSetBit(0); file >= 0; file = affectedFiles.nextSetBit(file + 1)) {
+			BitSet remainingFragments = (BitSet) m_fileFragments[file].clone();
+			remainingFragments.andNot(excluded);
+			if (remainingFragments.isEmpty()) {
+				files.remove(m_fileNames[file]);
+			} else {
+				files.put(m_fileNames[file], render(file, excluded));
+			}
+		}
+		return files;
+	}
+
+	private String render(int file, BitSet excluded) {
+		StringBuilder sb = new StringBuilder();
+		int[] tokenOrdinals = m_tokenOrdinals[file];
+		String[] tokenCodes = m_tokenCodes[file];
+		for (int i = 0; i < tokenOrdinals.length; i++) {
+			if (!excluded.get(tokenOrdinals[i])) {
+				sb.append(tokenCodes[i]);
+			}
+		}
+		return sb.toString();
+	}
+}
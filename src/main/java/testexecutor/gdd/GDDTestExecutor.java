@@ -12,21 +12,30 @@ import utility.JavaParserUtility;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class GDDTestExecutor extends HDDTestExecutor {
-    protected final GraphDB m_graphDB;
+    protected final IGraphDB m_graphDB;
     protected final Map<Long, GraphCodeFragment> m_fragments;
     protected Set<Long> m_activeFragments;
+    // the fragment trees of the files, collected during the extraction
+    private final List<HDDCodeFragment> m_fragmentTrees = new ArrayList<>();
+    // the files and the dependent fragments of the active fragments of the current level
+    private DependentClosureIndex m_closureIndex;
 
     public GDDTestExecutor(TestExecutorOptions options) {
         super(options);
-        DateTimeFormatter timeStampPattern = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-        String nodeIdentifierSuffix = "_" + LocalDateTime.now().format(timeStampPattern);
-        m_graphDB = new GraphDB(nodeIdentifierSuffix);
-        System.out.println("Manually query the graph in the neo4j browser: http://localhost:7474/browser/");
-        System.out.println("Example Query: \"MATCH (f:Fragment" + nodeIdentifierSuffix + ") RETURN *;\"");
+        if (options.getGraphDatabaseType() == TestExecutorOptions.EGraphDatabaseType.IN_MEMORY) {
+            m_graphDB = new InMemoryGraphDB();
+        } else {
+            DateTimeFormatter timeStampPattern = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+            String nodeIdentifierSuffix = "_" + LocalDateTime.now().format(timeStampPattern);
+            m_graphDB = new GraphDB(nodeIdentifierSuffix, options);
+            System.out.println("Manually query the graph in the neo4j browser: http://localhost:7474/browser/");
+            System.out.println("Example Query: \"MATCH (f:Fragment" + nodeIdentifierSuffix + ") RETURN *;\"");
+        }
 
         m_fragments = new HashMap<>();
         m_activeFragments = new HashSet<>();
@@ -34,10 +43,14 @@ public class GDDTestExecutor extends HDDTestExecutor {
 
     @Override
     public List<ICodeFragment> extractFragments() {
+        m_fragmentTrees.clear();
         super.extractFragments();
+        writeFragmentsToDatabase(m_fragmentTrees);
+        m_fragmentTrees.clear();
         Set<Long> removedFragments = m_graphDB.deleteUnneccessaryFragments();
         m_fragments.entrySet().removeIf(e -> removedFragments.contains(e.getKey()));
         m_graphDB.calculateCrossTreeDependencies();
+        invalidateClosureIndex();
         //m_graphDB.calculateGuarantees(); TODO check if this is actually beneficial
 
         // TODO maybe check for cycles in graph
@@ -47,64 +60,77 @@ public class GDDTestExecutor extends HDDTestExecutor {
     @Override
     protected HDDCodeFragment transformToFragements(CompilationUnit javaAST, List<JavaParserUtility.Token> tokens, String relativeFileName, AtomicInteger fragmentNr) {
         HDDCodeFragment root = super.transformToFragements(javaAST, tokens, relativeFileName, fragmentNr);
-        writeFragmentsToDatabase(Collections.singletonList(root), null);
+        m_fragmentTrees.add(root);
         return null;
     }
 
-    protected void writeFragmentsToDatabase(List<HDDCodeFragment> fragments, Long parentFragmentNodeId) {
-        List<Long> fragmentNodeIds = m_graphDB.addFragmentNodes(fragments);
-        if (parentFragmentNodeId != null) {
-            m_graphDB.addASTDependencies(fragmentNodeIds, parentFragmentNodeId);
+    // writes the fragment trees of all files to the graph in one batch
+    protected void writeFragmentsToDatabase(List<HDDCodeFragment> roots) {
+        long start = System.nanoTime();
+        List<HDDCodeFragment> fragments = new ArrayList<>();
+        List<Integer> parents = new ArrayList<>();
+        for (HDDCodeFragment root : roots) {
+            flattenFragmentTree(root, -1, fragments, parents);
         }
+
+        List<Long> fragmentNodeIds = m_graphDB.addFragmentTrees(fragments, parents.stream().mapToInt(Integer::intValue).toArray());
         // add all fragments to map
         for (int i = 0; i < fragmentNodeIds.size(); i++) {
             long id = fragmentNodeIds.get(i);
             HDDCodeFragment fragment = fragments.get(i);
             m_fragments.put(id, new GraphCodeFragment(fragment.getPath(), id, fragment.getTokens()));
         }
-        // recursively call method for children
-        for (int i = 0; i < fragmentNodeIds.size(); i++) {
-            long id = fragmentNodeIds.get(i);
-            HDDCodeFragment fragment = fragments.get(i);
-            writeFragmentsToDatabase(fragment.getChildren(), id);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long dependencies = parents.stream().filter(parent -> parent >= 0).count();
+        System.out.println(String.format("Wrote %d fragment nodes and %d AST dependencies to the graph in %d ms (%.0f nodes/s).",
+                fragments.size(), dependencies, millis, fragments.size() * 1000.0 / Math.max(1, millis)));
+    }
+
+    // adds the fragment and its descendants in pre-order, fragments without tokens are skipped together with their children
+    private void flattenFragmentTree(HDDCodeFragment fragment, int parent, List<HDDCodeFragment> fragments, List<Integer> parents) {
+        if (fragment.getTokens().isEmpty()) {
+            return;
+        }
+        int index = fragments.size();
+        fragments.add(fragment);
+        parents.add(parent);
+        for (HDDCodeFragment child : fragment.getChildren()) {
+            flattenFragmentTree(child, index, fragments, parents);
         }
     }
 
     @Override
     protected Map<String, String> mapFragmentsToFiles(List<ICodeFragment> selectedFragments) {
-        Set<Long> selectedActiveNodes = selectedFragments.stream()
-                .map(GraphCodeFragment.class::cast)
-                .map(ACodeFragment::getFragmentNumber)
-                .collect(Collectors.toSet());
-        Set<Long> excluded = new HashSet<>(m_activeFragments);
-        excluded.removeAll(selectedActiveNodes);
-        excluded.addAll(m_graphDB.getAllExcludedNodeIds(excluded));
-
-        Map<String, Set<GraphCodeFragment>> fragmentsByFile = m_fragments.entrySet()
-                .stream()
-                .filter(e -> !excluded.contains(e.getKey()))
-                .map(Map.Entry::getValue)
-                .map(GraphCodeFragment.class::cast)
-                .collect(Collectors.groupingBy(ICodeFragment::getPath, Collectors.mapping(fr -> fr, Collectors.toSet())));
-
-        Map<String, String> files = new HashMap<>();
-        for (Map.Entry<String, Set<GraphCodeFragment>> entry : fragmentsByFile.entrySet()) {
-            String fileName = entry.getKey();
-            StringBuilder sb = new StringBuilder();
-            entry.getValue().stream()
-                    .flatMap(fr -> fr.getTokens().stream())
-                    .sorted(Comparator.comparing(t -> t.start))
-                    .forEach(token -> sb.append(token.code));
-
-            files.put(fileName, sb.toString());
+        DependentClosureIndex closureIndex = getClosureIndex();
+        Set<Long> deselectedActiveNodes = new HashSet<>(closureIndex.getActiveNodeIds());
+        for (ICodeFragment fragment : selectedFragments) {
+            deselectedActiveNodes.remove(fragment.getFragmentNumber());
+        }
+        return closureIndex.renderFiles(deselectedActiveNodes);
+    }
+
+    // the graph does not change during a DDmin level, the index is built by the first test of a level
+    private synchronized DependentClosureIndex getClosureIndex() {
+        if (m_closureIndex == null) {
+            m_closureIndex = new DependentClosureIndex(m_fragments, m_graphDB.getDependentNodeIds(m_activeFragments));
         }
+        return m_closureIndex;
+    }
+
+    // must be called whenever the graph or the active fragments change
+    protected synchronized void invalidateClosureIndex() {
+        m_closureIndex = null;
+    }
 
-        return files;
+    protected void setActiveFragments(Set<Long> activeFragments) {
+        m_activeFragments = activeFragments;
+        invalidateClosureIndex();
     }
 
     // returns the fragments that the ddmin algorithm should be run on at this moment
     public List<ICodeFragment> getActiveFragments() {
-        m_activeFragments = m_graphDB.calculateActiveFragments(getOptions().getGraphAlgorithmFragmentLimit());
+        setActiveFragments(m_graphDB.calculateActiveFragments(getOptions().getGraphAlgorithmFragmentLimit()));
         return m_activeFragments.stream()
                 .map(m_fragments::get)
                 .filter(Objects::nonNull)
@@ -117,6 +143,7 @@ public class GDDTestExecutor extends HDDTestExecutor {
                 .map(ICodeFragment::getFragmentNumber)
                 .collect(Collectors.toSet());
         m_graphDB.markFragmentNodesAsFixed(fixedNodes);
+        invalidateClosureIndex();
     }
 
     public void addDiscardedFragments(List<ICodeFragment> fragments) {
@@ -126,9 +153,24 @@ public class GDDTestExecutor extends HDDTestExecutor {
                 .collect(Collectors.toSet());
         Set<Long> allDiscardedNodes = m_graphDB.discardFragmentNodes(nodesToDiscard);
         allDiscardedNodes.forEach(m_fragments::remove);
+        invalidateClosureIndex();
         System.out.println("Discarded " + fragments.size() + " active fragments. " + allDiscardedNodes.size() + " fragments, including dependent nodes");
     }
 
+    // fixes the minimal configuration of a level and discards the other active fragments with a single graph update
+    public void completeLevel(List<ICodeFragment> fixedFragments, List<ICodeFragment> discardedFragments) {
+        Set<Long> fixedNodes = fixedFragments.stream()
+                .map(ICodeFragment::getFragmentNumber)
+                .collect(Collectors.toSet());
+        Set<Long> nodesToDiscard = discardedFragments.stream()
+                .map(ICodeFragment::getFragmentNumber)
+                .collect(Collectors.toSet());
+        Set<Long> allDiscardedNodes = m_graphDB.completeLevel(fixedNodes, nodesToDiscard);
+        allDiscardedNodes.forEach(m_fragments::remove);
+        invalidateClosureIndex();
+        System.out.println("Discarded " + discardedFragments.size() + " active fragments. " + allDiscardedNodes.size() + " fragments, including dependent nodes");
+    }
+
     public int getNumberOfRemainingFragments() {
         return m_fragments.size();
     }
@@ -139,6 +181,11 @@ public class GDDTestExecutor extends HDDTestExecutor {
 
         // mark all nodes as free for another run of the algorithm
         m_graphDB.freeAllFragmentNodes();
-        m_activeFragments.clear();
+        setActiveFragments(new HashSet<>());
+    }
+
+    // closes the connection to the graph database
+    public void close() {
+        m_graphDB.close();
     }
 }
@@ -22,7 +22,7 @@ public class GDDrecTestExecutor extends GDDTestExecutor {
     public List<ICodeFragment> getActiveFragments() {
         while (!m_queue.isEmpty()) {
             m_activeParentNode = m_queue.poll();
-            m_activeFragments = m_graphDB.calculateActiveFragmentsDependentOn(m_activeParentNode);
+            setActiveFragments(m_graphDB.calculateActiveFragmentsDependentOn(m_activeParentNode));
             if (!m_activeFragments.isEmpty()) {
                 return m_activeFragments.stream()
                         .map(m_fragments::get)
@@ -44,4 +44,12 @@ public class GDDrecTestExecutor extends GDDTestExecutor {
                 .map(ICodeFragment::getFragmentNumber)
                 .collect(Collectors.toSet()));
     }
+
+    @Override
+    public void completeLevel(List<ICodeFragment> fixedFragments, List<ICodeFragment> discardedFragments) {
+        super.completeLevel(fixedFragments, discardedFragments);
+        m_queue.addAll(fixedFragments.stream()
+                .map(ICodeFragment::getFragmentNumber)
+                .collect(Collectors.toSet()));
+    }
 }
@@ -2,170 +2,164 @@ package testexecutor.gdd;
 
 import fragment.HDDCodeFragment;
 import org.eclipse.jdt.core.dom.*;
+import org.neo4j.driver.AuthToken;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
-import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.TransactionWork;
 import org.neo4j.driver.types.Entity;
-import utility.FileUtility;
-import utility.JavaParserUtility;
+import testexecutor.TestExecutorOptions;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class GraphDB {
+/**
+ * The dependency graph stored in a neo4j server.
+ */
+public class GraphDB extends AGraphDB {
 
-	private final static String NEO4J_URL = "bolt://localhost:7687";
 	private final static String LABEL_PREFIX_FRAGMENT = ":Fragment";
 	private static final String LABEL_FIXED = ":Fixed";
 	private static final String LABEL_FREE = ":Free";
 	private static final String LABEL_ACTIVE = ":Active";
 	private final static String RELATIONSHIP_LABEL_DEPENDS_ON = ":DEPENDS_ON";
-
 	private final static String RELATIONSHIP_LABEL_GUARANTEES = ":GUARANTEES";
-	private static final String ATTR_DEPENDENCY_TYPE = "dependencyType";
-
-	private static final String ATTR_FILENAME = "fileName";
-	private static final String ATTR_CODE = "code";
-	private static final String ATTR_NODE_TYPE = "nodeType";
-	private static final String ATTR_METHOD_NAME = "methodName";
-	private static final String ATTR_BINDING_KEY = "bindingKey";
-	private static final String ATTR_EXPRESSION_BINDING_KEY = "expressionBindingKey";
-	private static final String ATTR_CLASS_NAME = "className";
-	private static final String ATTR_SIMPLE_NAME = "simpleName";
-	private static final String ATTR_IMPORT_NAME = "importName";
-	private static final String ATTR_PACKAGE_NAME = "packageName";
-
-	private static final String DEPENDENCY_TYPE_AST_TREE = "AST_TREE";
-	private static final String DEPENDENCY_TYPE_INSTANTIATION_TO_DECLARATION = "INSTANTIATION_TO_DECLARATION";
-	private static final String DEPENDENCY_TYPE_IMPORT_TO_UNIT = "IMPORT_TO_UNIT";
-	private static final String DEPENDENCY_TYPE_CLASS_TO_IMPORT = "CLASS_TO_IMPORT";
-	private static final String DEPENDENCY_TYPE_CLASS_TO_UNIT_IN_PACKAGE = "CLASS_TO_UNIT_IN_PACKAGE";
-	private static final String DEPENDENCY_TYPE_METHOD_INVOCATION_TO_DECLARATION = "METHOD_INVOCATION_TO_DECLARATION";
-
-	private static final String GUARANTEE_TYPE_UNIT_TO_PACKAGE = "UNIT_TO_PACKAGE";
-	private static final String GUARANTEE_TYPE_UNIT_TO_TYPE_DEFINITION = "UNIT_TO_TYPE_DEFINITION";
-	private static final String GUARANTEE_TYPE_PACKAGE_INTERNAL = "PACKAGE_INTERNAL";
+	// number of nodes or edges written by a single statement
+	private static final int BATCH_SIZE = 10000;
 
 	private final Driver m_driver;
 	private final String m_nodeIdentifierSuffix;
 
-	public GraphDB(String nodeIdentifierSuffix) {
-		m_driver = GraphDatabase.driver(NEO4J_URL);
+	public GraphDB(String nodeIdentifierSuffix, TestExecutorOptions options) {
+		AuthToken authToken = options.getGraphDatabaseUser() == null
+				? AuthTokens.none()
+				: AuthTokens.basic(options.getGraphDatabaseUser(), options.getGraphDatabasePassword());
+		Config config = Config.builder()
+				.withMaxConnectionPoolSize(options.getGraphDatabaseMaxConnectionPoolSize())
+				.build();
+		m_driver = GraphDatabase.driver(options.getGraphDatabaseUrl(), authToken, config);
 		m_nodeIdentifierSuffix = nodeIdentifierSuffix;
 	}
 
-	public List<Long> addFragmentNodes(List<HDDCodeFragment> fragments) {
-		if (fragments == null || fragments.isEmpty()) {
-			return Collections.emptyList();
+	// runs the work in a read transaction of a new session, the session is closed afterwards
+	private <T> T read(TransactionWork<T> work) {
+		try (Session session = m_driver.session()) {
+			return session.readTransaction(work);
 		}
+	}
+
+	// runs the work in a write transaction of a new session, the work might be retried after transient errors
+	private <T> T write(TransactionWork<T> work) {
+		try (Session session = m_driver.session()) {
+			return session.writeTransaction(work);
+		}
+	}
 
-		String query = "UNWIND $props AS map CREATE (f" +
+	@Override
+	public List<Long> addFragmentTrees(List<HDDCodeFragment> fragments, int[] parents) {
+		// the nodes and edges are written with a few large UNWIND statements in a single transaction
+		String nodeQuery = "UNWIND $props AS row CREATE (f" +
 				LABEL_PREFIX_FRAGMENT +
 				m_nodeIdentifierSuffix +
 				LABEL_FREE +
-				") SET f = map" +
-				" RETURN ID(f)";
+				") SET f = row.properties" +
+				" RETURN row.index, ID(f)";
 
-		List<Map<String, Object>> props = new ArrayList<>();
+		List<Map<String, Object>> fragmentProperties = new ArrayList<>(fragments.size());
 		for (HDDCodeFragment fragment : fragments) {
-			if (fragment.getTokens().isEmpty()) {
-				continue;
-			}
-			Map<String, Object> fragmentProperties = new HashMap<>();
-			JavaParserUtility.Token token = fragment.getTokens().get(0);
-			ASTNode node = token.node;
-
-			fragmentProperties.put(ATTR_FILENAME, fragment.getPath());
-			fragmentProperties.put(ATTR_CODE, shortenString(node.toString(), 100));
-			fragmentProperties.put(ATTR_NODE_TYPE, node.getClass().getSimpleName());
-			fragmentProperties.put(ATTR_CLASS_NAME, FileUtility.fileNameToClassName(fragment.getPath()));
-
-			addNodeSpecificAttribute(fragmentProperties, node);
-			props.add(fragmentProperties);
+			fragmentProperties.add(getFragmentProperties(fragment));
 		}
-		Map<String, Object> params = new HashMap<>();
-		params.put("props", props);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		return res.stream()
-				.map(rec -> rec.get(0).asLong())
-				.collect(Collectors.toList());
-	}
 
-	private String shortenString(String str, int length) {
-		if (str == null) {
-			return null;
-		}
-		if (str.length() <= length) {
-			return str;
-		}
-		return str.substring(0, length - 3) + "...";
-	}
-
-	private void addNodeSpecificAttribute(Map<String, Object> fragmentProperties, ASTNode node) {
-		if (node instanceof MethodDeclaration) {
-			MethodDeclaration n = ((MethodDeclaration) node);
-			fragmentProperties.put(ATTR_METHOD_NAME, n.getName().toString());
-			IMethodBinding methodBinding = (IMethodBinding) n.getName().resolveBinding();
-			if (methodBinding != null) {
-				fragmentProperties.put(ATTR_BINDING_KEY, methodBinding.getKey());
-			}
-		} else if (node instanceof ClassInstanceCreation) {
-			fragmentProperties.put(ATTR_SIMPLE_NAME, ((ClassInstanceCreation) node).getType().toString());
-		} else if (node instanceof TypeDeclaration) {
-			fragmentProperties.put(ATTR_SIMPLE_NAME, ((TypeDeclaration) node).getName().toString());
-		} else if (node instanceof SimpleType) {
-			fragmentProperties.put(ATTR_SIMPLE_NAME, ((SimpleType) node).getName().toString());
-		} else if (node instanceof MethodInvocation) {
-			MethodInvocation n = (MethodInvocation) node;
-			fragmentProperties.put(ATTR_METHOD_NAME, n.getName().toString());
-			IMethodBinding methodBinding = (IMethodBinding) n.getName().resolveBinding();
-			if (methodBinding != null) {
-				fragmentProperties.put(ATTR_BINDING_KEY, methodBinding.getKey());
-			}
-			Expression expr = n.getExpression();
-			if (expr instanceof SimpleName) {
-				fragmentProperties.put(ATTR_SIMPLE_NAME, expr.toString());
-				IBinding binding = ((SimpleName) expr).resolveBinding();
-				if (binding != null) {
-					fragmentProperties.put(ATTR_EXPRESSION_BINDING_KEY, binding.getKey());
+		List<Long> nodeIds = write(transaction -> {
+			Long[] ids = new Long[fragments.size()];
+			for (int start = 0; start < fragments.size(); start += BATCH_SIZE) {
+				List<Map<String, Object>> props = new ArrayList<>();
+				for (int i = start; i < Math.min(start + BATCH_SIZE, fragments.size()); i++) {
+					Map<String, Object> row = new HashMap<>();
+					row.put("index", i);
+					row.put("properties", fragmentProperties.get(i));
+					props.add(row);
 				}
+				Map<String, Object> params = new HashMap<>();
+				params.put("props", props);
+				transaction.run(nodeQuery, params)
+						.forEachRemaining(rec -> ids[rec.get(0).asInt()] = rec.get(1).asLong());
 			}
-		} else if (node instanceof ImportDeclaration) {
-			fragmentProperties.put(ATTR_IMPORT_NAME, ((ImportDeclaration) node).getName().toString());
-		} else if (node instanceof PackageDeclaration) {
-			fragmentProperties.put(ATTR_PACKAGE_NAME, ((PackageDeclaration) node).getName().toString());
-		} else if (node instanceof SimpleName) {
-			fragmentProperties.put(ATTR_SIMPLE_NAME, node.toString());
-			IBinding binding = ((SimpleName) node).resolveBinding();
-			if (binding != null) {
-				fragmentProperties.put(ATTR_BINDING_KEY, binding.getKey());
+
+			List<long[]> dependencies = new ArrayList<>();
+			for (int i = 0; i < fragments.size(); i++) {
+				if (parents[i] >= 0) {
+					dependencies.add(new long[]{ids[i], ids[parents[i]]});
+				}
 			}
+			addDependencies(transaction, DEPENDENCY_TYPE_AST_TREE, dependencies);
+			return Arrays.asList(ids);
+		});
+
+		// the transaction might have been retried, so the nodes are only indexed once their ids are final
+		for (int i = 0; i < nodeIds.size(); i++) {
+			addToCrossTreeDependencyIndex(nodeIds.get(i), fragmentProperties.get(i));
 		}
+		return nodeIds;
 	}
 
-	public void addASTDependencies(List<Long> nodeIds, long parentNodeId) {
-		String query = "MATCH (a), (b) WHERE ID(a) IN $nodeIds" +
-				" AND ID(b)=$parentNodeId" +
-				" CREATE (a)-[r" +
+	@Override
+	protected void addDependencies(String dependencyType, List<long[]> dependencies) {
+		write(transaction -> addDependencies(transaction, dependencyType, dependencies));
+	}
+
+	// returns the number of created relationships
+	private int addDependencies(Transaction transaction, String dependencyType, List<long[]> dependencies) {
+		String query = "UNWIND $edges AS edge" +
+				" MATCH (a) WHERE ID(a) = edge[0]" +
+				" MATCH (b) WHERE ID(b) = edge[1]" +
+				" CREATE (a)-[" +
 				RELATIONSHIP_LABEL_DEPENDS_ON +
 				"{" +
 				ATTR_DEPENDENCY_TYPE +
 				":$dependenceType}]->(b)";
-		Map<String, Object> params = new HashMap<>();
-		params.put("dependenceType", DEPENDENCY_TYPE_AST_TREE);
-		params.put("nodeIds", nodeIds);
-		params.put("parentNodeId", parentNodeId);
 
-		Session session = m_driver.session();
-		session.run(query, params);
+		int relationships = 0;
+		for (int start = 0; start < dependencies.size(); start += BATCH_SIZE) {
+			List<List<Long>> edges = new ArrayList<>();
+			for (long[] dependency : dependencies.subList(start, Math.min(start + BATCH_SIZE, dependencies.size()))) {
+				edges.add(Arrays.asList(dependency[0], dependency[1]));
+			}
+			Map<String, Object> params = new HashMap<>();
+			params.put("edges", edges);
+			params.put("dependenceType", dependencyType);
+			relationships += transaction.run(query, params).consume().counters().relationshipsCreated();
+		}
+		return relationships;
 	}
 
+	@Override
 	public void markFragmentNodesAsFixed(Set<Long> nodeIds) {
 		if (nodeIds.isEmpty()) {
 			return;
 		}
+		String fixedNodesMessage = write(transaction -> fixNodes(transaction, nodeIds));
+		System.out.println(fixedNodesMessage);
+	}
+
+	@Override
+	public Set<Long> completeLevel(Set<Long> fixedNodeIds, Set<Long> discardedNodeIds) {
+		String[] fixedNodesMessage = new String[1];
+		Set<Long> allDiscardedNodeIds = write(transaction -> {
+			fixedNodesMessage[0] = fixedNodeIds.isEmpty() ? null : fixNodes(transaction, fixedNodeIds);
+			return discardedNodeIds.isEmpty() ? new HashSet<>() : discardNodes(transaction, discardedNodeIds);
+		});
+		if (fixedNodesMessage[0] != null) {
+			System.out.println(fixedNodesMessage[0]);
+		}
+		return allDiscardedNodeIds;
+	}
+
+	// returns the message on the number of fixed nodes
+	private String fixNodes(Transaction transaction, Set<Long> nodeIds) {
 		Map<String, Object> params = new HashMap<>();
 
 		// fix minimal configuration of active nodes
@@ -180,9 +174,7 @@ public class GraphDB {
 				LABEL_ACTIVE +
 				";";
 		params.put("nodeIds", nodeIds);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		int fixedNodes = res.consume().counters().labelsAdded();
+		int fixedNodes = transaction.run(query, params).consume().counters().labelsAdded();
 
 		// fix all nodes that are guaranteed by the minimal configuration
 		String query2 = "MATCH (n" +
@@ -200,10 +192,11 @@ public class GraphDB {
 				" REMOVE f" +
 				LABEL_FREE +
 				";";
-		Result res2 = session.run(query2, params);
-		System.out.println("Fixed " + fixedNodes + " active nodes and " + res2.consume().counters().labelsAdded() + " free nodes guaranteed by them.");
+		int guaranteedNodes = transaction.run(query2, params).consume().counters().labelsAdded();
+		return "Fixed " + fixedNodes + " active nodes and " + guaranteedNodes + " free nodes guaranteed by them.";
 	}
 
+	@Override
 	public void freeAllFragmentNodes() {
 		String query = "MATCH (n" +
 				LABEL_PREFIX_FRAGMENT +
@@ -216,41 +209,42 @@ public class GraphDB {
 				LABEL_FIXED +
 				";";
 
-		Session session = m_driver.session();
-		session.run(query);
+		write(transaction -> transaction.run(query).consume());
 	}
 
+	@Override
 	public Set<Long> discardFragmentNodes(Set<Long> nodeIds) {
 		if (nodeIds.isEmpty()) {
 			return Collections.emptySet();
 		}
+		return write(transaction -> discardNodes(transaction, nodeIds));
+	}
+
+	private Set<Long> discardNodes(Transaction transaction, Set<Long> nodeIds) {
 		Map<String, Object> params = new HashMap<>();
 		params.put("nodeIds", nodeIds);
-		Session session = m_driver.session();
 
 		// delete all dependent fragments
 		String query1 = "MATCH (f" + LABEL_PREFIX_FRAGMENT + m_nodeIdentifierSuffix + ")<-[" + RELATIONSHIP_LABEL_DEPENDS_ON + "*]-(u) WHERE ID(f) IN $nodeIds DETACH DELETE u RETURN ID(u)";
-		Result res = session.run(query1, params);
-		Set<Long> allDiscardedNodeIds = res.stream()
+		Set<Long> allDiscardedNodeIds = transaction.run(query1, params).stream()
 				.map(rec -> rec.get(0).asLong()).collect(Collectors.toSet());
 
 		// delete the fragments to discard
 		String query2 = "MATCH (f" + LABEL_PREFIX_FRAGMENT + m_nodeIdentifierSuffix + ") WHERE ID(f) IN $nodeIds DETACH DELETE f RETURN ID(f)";
-		res = session.run(query2, params);
-		allDiscardedNodeIds.addAll(res.stream()
+		allDiscardedNodeIds.addAll(transaction.run(query2, params).stream()
 				.map(rec -> rec.get(0).asLong())
 				.collect(Collectors.toSet()));
 
 		return allDiscardedNodeIds;
 	}
 
+	@Override
 	public int getNumberOfFragments() {
 		String query = "MATCH (n" + LABEL_PREFIX_FRAGMENT + m_nodeIdentifierSuffix + ") RETURN COUNT(n);";
-		Session session = m_driver.session();
-		Result res = session.run(query);
-		return res.single().get(0).asInt();
+		return read(transaction -> transaction.run(query).single().get(0).asInt());
 	}
 
+	@Override
 	public Set<Long> calculateActiveFragments(int limit) {
 		String query = "MATCH (n" + LABEL_PREFIX_FRAGMENT + m_nodeIdentifierSuffix + LABEL_FREE
 				+ ") WHERE NOT EXISTS {MATCH (n)-[" + RELATIONSHIP_LABEL_DEPENDS_ON + "]->(" + LABEL_FREE
@@ -260,16 +254,16 @@ public class GraphDB {
 			query += " LIMIT " + limit;
 		}
 
-		Session session = m_driver.session();
-		Result res = session.run(query);
-		return res.stream()
+		String activationQuery = query;
+		return write(transaction -> transaction.run(activationQuery).stream()
 				.map(rec -> rec.get(0).asNode())
 				.filter(Objects::nonNull)
 				.map(Entity::id)
-				.collect(Collectors.toSet());
+				.collect(Collectors.toSet()));
 	}
 
 
+	@Override
 	public Set<Long> calculateActiveFragmentsDependentOn(long dependentOn) {
         /*
             MATCH (f:Fragment_20230428_155847:Free)-[:DEPENDS_ON]->(p:Fragment_20230428_155847)
@@ -289,13 +283,12 @@ public class GraphDB {
 				" RETURN ID(f);";
 
 		params.put("dependentOn", dependentOn);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		return res.stream()
+		return write(transaction -> transaction.run(query, params).stream()
 				.map(rec -> rec.get(0).asLong())
-				.collect(Collectors.toSet());
+				.collect(Collectors.toSet()));
 	}
 
+	@Override
 	public int checkForFreeDependentNodes(long nodeId) {
         /*
             MATCH (f:Fragment_20230428_155847:Free)-[:DEPENDS_ON]->(p:Fragment_20230428_155847)
@@ -309,11 +302,10 @@ public class GraphDB {
 				" RETURN COUNT(f);";
 
 		params.put("dependentOn", nodeId);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		return res.single().get(0).asInt();
+		return read(transaction -> transaction.run(query, params).single().get(0).asInt());
 	}
 
+	@Override
 	public Set<Long> getAllExcludedNodeIds(Set<Long> deselectedActiveNodes) {
         /*
             MATCH (a:Fragment_20230323_140604:Active), (a)<-[:DEPENDS_ON*]-(f:Fragment_20230323_140604:Free)
@@ -335,14 +327,44 @@ public class GraphDB {
 				" RETURN ID(f)";
 
 		params.put("nodeIds", deselectedActiveNodes);
-
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		return res.stream()
+		return read(transaction -> transaction.run(query, params).stream()
 				.map(rec -> rec.get(0).asLong())
-				.collect(Collectors.toSet());
+				.collect(Collectors.toSet()));
 	}
 
+	@Override
+	public Map<Long, Set<Long>> getDependentNodeIds(Set<Long> activeNodes) {
+        /*
+            MATCH (a:Fragment_20230323_140604:Active)<-[:DEPENDS_ON*]-(f:Fragment_20230323_140604:Free)
+            WHERE ID(a) IN [123, 456]
+            RETURN ID(a), COLLECT(DISTINCT ID(f));
+         */
+		Map<String, Object> params = new HashMap<>();
+		String query = "MATCH (a" +
+				LABEL_PREFIX_FRAGMENT +
+				m_nodeIdentifierSuffix +
+				LABEL_ACTIVE +
+				")<-[" +
+				RELATIONSHIP_LABEL_DEPENDS_ON +
+				"*]-(f" +
+				LABEL_PREFIX_FRAGMENT +
+				m_nodeIdentifierSuffix +
+				LABEL_FREE +
+				") WHERE ID(a) IN $nodeIds" +
+				" RETURN ID(a), COLLECT(DISTINCT ID(f))";
+
+		params.put("nodeIds", activeNodes);
+		Map<Long, Set<Long>> dependentNodeIds = read(transaction -> transaction.run(query, params).stream()
+				.collect(Collectors.toMap(rec -> rec.get(0).asLong(),
+						rec -> new HashSet<>(rec.get(1).asList(value -> value.asLong())))));
+		// active nodes without dependent free nodes are not returned by the query
+		for (long nodeId : activeNodes) {
+			dependentNodeIds.putIfAbsent(nodeId, new HashSet<>());
+		}
+		return dependentNodeIds;
+	}
+
+	@Override
 	public Set<Long> deleteUnneccessaryFragments() {
 		return deleteJavadocFragments();
 	}
@@ -363,24 +385,19 @@ public class GraphDB {
 				" RETURN ID(f);";
 
 		params.put("javadoc", Javadoc.class.getSimpleName());
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		Set<Long> deletedNodeIds = res.stream()
+		Set<Long> deletedNodeIds = write(transaction -> transaction.run(query, params).stream()
 				.map(rec -> rec.get(0).asLong())
-				.collect(Collectors.toSet());
+				.collect(Collectors.toSet()));
 		System.out.println("Removed " + deletedNodeIds.size() + " javadoc fragments.");
 		return deletedNodeIds;
 	}
 
-	public void calculateCrossTreeDependencies() {
-		// calculate cross tree dependencies depending on node types
-		addMethodInvocationToDeclarationDependencies();
-		addInstantiationToDeclarationDependencies();
-		addImportToUnitDependencies();
-		addClassToImportDependencies();
-		addClassToUnitInPackageDependencies();
+	@Override
+	public void close() {
+		m_driver.close();
 	}
 
+	@Override
 	public void calculateGuarantees() {
 		// calculate required children
 		// i.e. a compilation unit is dependent on its package declaration and vice versa
@@ -390,180 +407,6 @@ public class GraphDB {
 		addUnitToTypeDefinitionGuarantee();
 	}
 
-	private void addInstantiationToDeclarationDependencies() {
-		Map<String, Object> params = new HashMap<>();
-		String query = "MATCH (t" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$typeDeclaration}), (c" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$classInstanceCreation}) WHERE t." +
-				ATTR_SIMPLE_NAME +
-				" = c." +
-				ATTR_SIMPLE_NAME +
-				" CREATE (c)-[" +
-				RELATIONSHIP_LABEL_DEPENDS_ON +
-				"{" +
-				ATTR_DEPENDENCY_TYPE +
-				":$dependenceType}]->(t);";
-
-		params.put("typeDeclaration", TypeDeclaration.class.getSimpleName());
-		params.put("classInstanceCreation", ClassInstanceCreation.class.getSimpleName());
-		params.put("dependenceType", DEPENDENCY_TYPE_INSTANTIATION_TO_DECLARATION);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " instantiation to declaration cross tree dependencies.");
-	}
-
-	private void addImportToUnitDependencies() {
-		Map<String, Object> params = new HashMap<>();
-		String query = "MATCH (i" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$importDeclaration}), (c" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$compilationUnit}) WHERE i." +
-				ATTR_IMPORT_NAME +
-				" = c." +
-				ATTR_CLASS_NAME +
-				" CREATE (c)-[" +
-				RELATIONSHIP_LABEL_DEPENDS_ON +
-				"{" +
-				ATTR_DEPENDENCY_TYPE +
-				":$dependenceType}]->(t);";
-
-		params.put("importDeclaration", ImportDeclaration.class.getSimpleName());
-		params.put("compilationUnit", CompilationUnit.class.getSimpleName());
-		params.put("dependenceType", DEPENDENCY_TYPE_IMPORT_TO_UNIT);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " import to unit cross tree dependencies.");
-	}
-
-	private void addClassToImportDependencies() {
-        /*
-         MATCH (s:Fragment_20230323_090434 {nodeType:'SimpleType'}), (i:Fragment_20230323_090434 {nodeType:'ImportDeclaration'})
-         WHERE LAST(SPLIT(i.importName, '.')) = s.simpleName
-         AND i.className = s.className
-         CREATE (s)-[:DEPENDS_ON]->(i);
-         */
-		Map<String, Object> params = new HashMap<>();
-		String query = "MATCH (i" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$importDeclaration}), (s" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$simpleType}) WHERE LAST(SPLIT(i." +
-				ATTR_IMPORT_NAME +
-				", '.')) = s." +
-				ATTR_SIMPLE_NAME +
-				" AND i." +
-				ATTR_CLASS_NAME +
-				" = s." +
-				ATTR_CLASS_NAME +
-				" CREATE (s)-[" +
-				RELATIONSHIP_LABEL_DEPENDS_ON +
-				"{" +
-				ATTR_DEPENDENCY_TYPE +
-				":$dependenceType}]->(t);";
-
-		params.put("importDeclaration", ImportDeclaration.class.getSimpleName());
-		params.put("simpleType", SimpleType.class.getSimpleName());
-		params.put("dependenceType", DEPENDENCY_TYPE_CLASS_TO_IMPORT);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " class to import cross tree dependencies.");
-	}
-
-	private void addClassToUnitInPackageDependencies() {
-		Map<String, Object> params = new HashMap<>();
-		String query = "MATCH (s" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$simpleType}), (c" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$compilationUnit}) WHERE LEFT(s." +
-				ATTR_CLASS_NAME +
-				", SIZE(s." +
-				ATTR_CLASS_NAME +
-				") - SIZE(LAST(SPLIT(s." +
-				ATTR_CLASS_NAME +
-				", '.')))) + s." +
-				ATTR_SIMPLE_NAME +
-				" = c." +
-				ATTR_CLASS_NAME +
-				" AND s." +
-				ATTR_CLASS_NAME +
-				" <> c." +
-				ATTR_CLASS_NAME +
-				" CREATE (s)-[" +
-				RELATIONSHIP_LABEL_DEPENDS_ON +
-				"{" +
-				ATTR_DEPENDENCY_TYPE +
-				":$dependenceType}]->(c);";
-
-		params.put("simpleType", SimpleType.class.getSimpleName());
-		params.put("compilationUnit", CompilationUnit.class.getSimpleName());
-		params.put("dependenceType", DEPENDENCY_TYPE_CLASS_TO_UNIT_IN_PACKAGE);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " class to unit in package cross tree dependencies.");
-	}
-
-	private void addMethodInvocationToDeclarationDependencies() {
-        /*
-        MATCH (i:Fragment_20230420_172659 {nodeType:'MethodInvocation'}), (d:Fragment_20230420_172659 {nodeType:'MethodDeclaration'})
-        WHERE i.bindingKey IS NOT NULL AND i.bindingKey = d.bindingKey
-        RETURN i, d;
-         */
-
-		Map<String, Object> params = new HashMap<>();
-		String query = "MATCH (i" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$methodInvocation}), (d" +
-				LABEL_PREFIX_FRAGMENT +
-				m_nodeIdentifierSuffix +
-				"{" +
-				ATTR_NODE_TYPE +
-				":$methodDeclaration}) WHERE i." +
-				ATTR_BINDING_KEY + " IS NOT NULL AND i." +
-				ATTR_BINDING_KEY + " = d." + ATTR_BINDING_KEY +
-				" CREATE (s)-[" +
-				RELATIONSHIP_LABEL_DEPENDS_ON +
-				"{" +
-				ATTR_DEPENDENCY_TYPE +
-				":$dependenceType}]->(c);";
-		params.put("methodInvocation", MethodInvocation.class.getSimpleName());
-		params.put("methodDeclaration", MethodDeclaration.class.getSimpleName());
-		params.put("dependenceType", DEPENDENCY_TYPE_METHOD_INVOCATION_TO_DECLARATION);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " method invocation to declaration cross tree dependencies.");
-	}
-
 	private void addUnitToPackageGuarantee() {
         /*
         MATCH (c:Fragment_20230330_092703 {nodeType:'CompilationUnit'})<-[:DEPENDS_ON {dependencyType:'AST_TREE'}]-(p:Fragment_20230330_092703 {nodeType:'PackageDeclaration'})
@@ -596,9 +439,8 @@ public class GraphDB {
 		params.put("compilationUnit", CompilationUnit.class.getSimpleName());
 		params.put("packageDeclaration", PackageDeclaration.class.getSimpleName());
 		params.put("dependenceType", GUARANTEE_TYPE_UNIT_TO_PACKAGE);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " unit to package declaration guarantees.");
+		int relationships = write(transaction -> transaction.run(query, params).consume().counters().relationshipsCreated());
+		System.out.println("Added " + relationships + " unit to package declaration guarantees.");
 	}
 
 	private void addInternalPackageGuarantee() {
@@ -629,9 +471,8 @@ public class GraphDB {
 
 		params.put("packageDeclaration", PackageDeclaration.class.getSimpleName());
 		params.put("dependenceType", GUARANTEE_TYPE_PACKAGE_INTERNAL);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " internal package declaration guarantees.");
+		int relationships = write(transaction -> transaction.run(query, params).consume().counters().relationshipsCreated());
+		System.out.println("Added " + relationships + " internal package declaration guarantees.");
 	}
 
 	private void addUnitToTypeDefinitionGuarantee() {
@@ -671,8 +512,7 @@ public class GraphDB {
 		params.put("compilationUnit", CompilationUnit.class.getSimpleName());
 		params.put("typeDeclaration", TypeDeclaration.class.getSimpleName());
 		params.put("dependenceType", GUARANTEE_TYPE_UNIT_TO_TYPE_DEFINITION);
-		Session session = m_driver.session();
-		Result res = session.run(query, params);
-		System.out.println("Added " + res.consume().counters().relationshipsCreated() + " unit to type definition guarantees.");
+		int relationships = write(transaction -> transaction.run(query, params).consume().counters().relationshipsCreated());
+		System.out.println("Added " + relationships + " unit to type definition guarantees.");
 	}
 }
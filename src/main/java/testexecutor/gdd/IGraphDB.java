@@ -0,0 +1,55 @@
+package testexecutor.gdd;
+
+import fragment.HDDCodeFragment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The dependency graph of the fragments of GDD and GDDr.
+ * Fragments are nodes that depend on other nodes or guarantee other nodes. Every node is either free, active or fixed.
+ */
+public interface IGraphDB extends AutoCloseable {
+
+	// adds the fragments as free nodes and the AST dependency of every fragment on its parent in one batch
+	// parents holds the index of the parent of each fragment or -1 for roots, returns the node ids in the order of the fragments
+	List<Long> addFragmentTrees(List<HDDCodeFragment> fragments, int[] parents);
+
+	// fixes the given nodes and all free nodes guaranteed by them
+	void markFragmentNodesAsFixed(Set<Long> nodeIds);
+
+	void freeAllFragmentNodes();
+
+	// deletes the given nodes and all nodes that depend on them, returns the ids of all deleted nodes
+	Set<Long> discardFragmentNodes(Set<Long> nodeIds);
+
+	// fixes the minimal configuration of a DDmin level and discards the other active nodes together
+	// returns the ids of all deleted nodes
+	Set<Long> completeLevel(Set<Long> fixedNodeIds, Set<Long> discardedNodeIds);
+
+	int getNumberOfFragments();
+
+	// activates the free nodes that do not depend on other free nodes, at most limit nodes if the limit is positive
+	Set<Long> calculateActiveFragments(int limit);
+
+	// activates the free nodes that depend on the given node and not on other free nodes
+	Set<Long> calculateActiveFragmentsDependentOn(long dependentOn);
+
+	int checkForFreeDependentNodes(long nodeId);
+
+	// the free nodes that depend on the given active nodes, directly or transitively
+	Set<Long> getAllExcludedNodeIds(Set<Long> deselectedActiveNodes);
+
+	// the free nodes that depend on each of the given active nodes, directly or transitively
+	Map<Long, Set<Long>> getDependentNodeIds(Set<Long> activeNodes);
+
+	Set<Long> deleteUnneccessaryFragments();
+
+	void calculateCrossTreeDependencies();
+
+	void calculateGuarantees();
+
+	@Override
+	void close();
+}
@@ -0,0 +1,368 @@
+package testexecutor.gdd;
+
+import fragment.HDDCodeFragment;
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+
+/**
+ * The dependency graph stored in the memory of the process, it does not require a neo4j server.
+ * Nodes are dense int ids, the edges are int adjacency arrays and the labels free, active and fixed are bitsets,
+ * so every query is a traversal of arrays instead of a round trip to the server.
+ */
+public class InMemoryGraphDB extends AGraphDB {
+
+	private final List<Map<String, Object>> m_properties = new ArrayList<>();
+	private final BitSet m_nodes = new BitSet();
+	private final BitSet m_free = new BitSet();
+	private final BitSet m_active = new BitSet();
+	private final BitSet m_fixed = new BitSet();
+	// the DEPENDS_ON edges in both directions
+	private final AdjacencyList m_dependsOn = new AdjacencyList();
+	private final AdjacencyList m_dependents = new AdjacencyList();
+	private final AdjacencyList m_guarantees = new AdjacencyList();
+	// the AST_TREE edges, which are also DEPENDS_ON edges
+	private final AdjacencyList m_astChildren = new AdjacencyList();
+	private int[] m_astParents = new int[0];
+
+	@Override
+	public synchronized List<Long> addFragmentTrees(List<HDDCodeFragment> fragments, int[] parents) {
+		List<Long> nodeIds = new ArrayList<>(fragments.size());
+		for (int i = 0; i < fragments.size(); i++) {
+			int node = m_properties.size();
+			Map<String, Object> fragmentProperties = getFragmentProperties(fragments.get(i));
+			m_properties.add(fragmentProperties);
+			addToCrossTreeDependencyIndex(node, fragmentProperties);
+			m_nodes.set(node);
+			m_free.set(node);
+			if (node >= m_astParents.length) {
+				int capacity = Math.max(16, 2 * m_astParents.length);
+				m_astParents = Arrays.copyOf(m_astParents, capacity);
+			}
+			m_astParents[node] = -1;
+			if (parents[i] >= 0) {
+				int parent = (int) (long) nodeIds.get(parents[i]);
+				addDependency(node, parent);
+				m_astChildren.add(parent, node);
+				m_astParents[node] = parent;
+			}
+			nodeIds.add((long) node);
+		}
+		return nodeIds;
+	}
+
+	@Override
+	public synchronized void markFragmentNodesAsFixed(Set<Long> nodeIds) {
+		if (nodeIds.isEmpty()) {
+			return;
+		}
+
+		// fix minimal configuration of active nodes
+		BitSet nodes = toBitSet(nodeIds);
+		BitSet fixedNodes = (BitSet) nodes.clone();
+		fixedNodes.andNot(m_fixed);
+		m_fixed.or(nodes);
+		m_active.andNot(nodes);
+
+		// fix all nodes that are guaranteed by the minimal configuration
+		BitSet guaranteedNodes = reachable(nodes, m_guarantees);
+		guaranteedNodes.and(m_free);
+		m_fixed.or(guaranteedNodes);
+		m_free.andNot(guaranteedNodes);
+		System.out.println("Fixed " + fixedNodes.cardinality() + " active nodes and " + guaranteedNodes.cardinality() + " free nodes guaranteed by them.");
+	}
+
+	@Override
+	public synchronized void freeAllFragmentNodes() {
+		m_free.or(m_nodes);
+		m_active.clear();
+		m_fixed.clear();
+	}
+
+	@Override
+	public synchronized Set<Long> discardFragmentNodes(Set<Long> nodeIds) {
+		if (nodeIds.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		// delete the fragments to discard and all dependent fragments
+		BitSet nodes = toBitSet(nodeIds);
+		BitSet discardedNodes = reachable(nodes, m_dependents);
+		discardedNodes.or(nodes);
+		delete(discardedNodes);
+		return toIdSet(discardedNodes);
+	}
+
+	@Override
+	public synchronized Set<Long> completeLevel(Set<Long> fixedNodeIds, Set<Long> discardedNodeIds) {
+		markFragmentNodesAsFixed(fixedNodeIds);
+		return discardedNodeIds.isEmpty() ? new HashSet<>() : discardFragmentNodes(discardedNodeIds);
+	}
+
+	@Override
+	public synchronized int getNumberOfFragments() {
+		return m_nodes.cardinality();
+	}
+
+	@Override
+	public synchronized Set<Long> calculateActiveFragments(int limit) {
+		BitSet activatedNodes = new BitSet();
+		int numberOfActivatedNodes = 0;
+		for (int node = m_free.nextSetBit(0); node >= 0; node = m_free.nextSetBit(node + 1)) {
+			if (limit > 0 && numberOfActivatedNodes >= limit) {
+				break;
+			}
+			if (!dependsOnFreeNode(node)) {
+				activatedNodes.set(node);
+				numberOfActivatedNodes++;
+			}
+		}
+		return activate(activatedNodes);
+	}
+
+	@Override
+	public synchronized Set<Long> calculateActiveFragmentsDependentOn(long dependentOn) {
+		int parent = (int) dependentOn;
+		BitSet activatedNodes = new BitSet();
+		if (m_nodes.get(parent)) {
+			for (int i = 0; i < m_dependents.size(parent); i++) {
+				int node = m_dependents.get(parent, i);
+				if (m_free.get(node) && !dependsOnFreeNode(node)) {
+					activatedNodes.set(node);
+				}
+			}
+		}
+		return activate(activatedNodes);
+	}
+
+	@Override
+	public synchronized int checkForFreeDependentNodes(long nodeId) {
+		int parent = (int) nodeId;
+		if (!m_nodes.get(parent)) {
+			return 0;
+		}
+		int freeDependentNodes = 0;
+		for (int i = 0; i < m_dependents.size(parent); i++) {
+			if (m_free.get(m_dependents.get(parent, i))) {
+				freeDependentNodes++;
+			}
+		}
+		return freeDependentNodes;
+	}
+
+	@Override
+	public synchronized Set<Long> getAllExcludedNodeIds(Set<Long> deselectedActiveNodes) {
+		BitSet nodes = toBitSet(deselectedActiveNodes);
+		nodes.and(m_active);
+		BitSet excludedNodes = reachable(nodes, m_dependents);
+		excludedNodes.and(m_free);
+		return toIdSet(excludedNodes);
+	}
+
+	@Override
+	public synchronized Map<Long, Set<Long>> getDependentNodeIds(Set<Long> activeNodes) {
+		Map<Long, Set<Long>> dependentNodeIds = new HashMap<>();
+		for (long nodeId : activeNodes) {
+			BitSet node = toBitSet(Collections.singleton(nodeId));
+			node.and(m_active);
+			BitSet dependentNodes = reachable(node, m_dependents);
+			dependentNodes.and(m_free);
+			dependentNodeIds.put(nodeId, toIdSet(dependentNodes));
+		}
+		return dependentNodeIds;
+	}
+
+	@Override
+	public synchronized Set<Long> deleteUnneccessaryFragments() {
+		return deleteJavadocFragments();
+	}
+
+	private Set<Long> deleteJavadocFragments() {
+		BitSet javadocNodes = getNodesOfType(Javadoc.class);
+		delete(javadocNodes);
+		System.out.println("Removed " + javadocNodes.cardinality() + " javadoc fragments.");
+		return toIdSet(javadocNodes);
+	}
+
+	@Override
+	public synchronized void calculateCrossTreeDependencies() {
+		// the joins of the base class add the edges with addDependencies while holding the lock of the graph
+		super.calculateCrossTreeDependencies();
+	}
+
+	@Override
+	protected void addDependencies(String dependencyType, List<long[]> dependencies) {
+		for (long[] dependency : dependencies) {
+			if (m_nodes.get((int) dependency[0]) && m_nodes.get((int) dependency[1])) {
+				addDependency((int) dependency[0], (int) dependency[1]);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void calculateGuarantees() {
+		// calculate required children
+		// i.e. a compilation unit is dependent on its package declaration and vice versa
+		// to prevent circular dependencies with the DEPENDS_ON edges we use separate GUARANTEES edges
+		int unitToPackageGuarantees = 0;
+		int internalPackageGuarantees = 0;
+		int unitToTypeDefinitionGuarantees = 0;
+
+		BitSet packageNodes = getNodesOfType(PackageDeclaration.class);
+		for (int node = packageNodes.nextSetBit(0); node >= 0; node = packageNodes.nextSetBit(node + 1)) {
+			int parent = m_astParents[node];
+			if (isNodeOfType(parent, CompilationUnit.class)) {
+				m_guarantees.add(parent, node);
+				unitToPackageGuarantees++;
+			}
+			BitSet start = new BitSet();
+			start.set(node);
+			BitSet internalNodes = reachable(start, m_astChildren);
+			for (int internalNode = internalNodes.nextSetBit(0); internalNode >= 0; internalNode = internalNodes.nextSetBit(internalNode + 1)) {
+				m_guarantees.add(node, internalNode);
+				internalPackageGuarantees++;
+			}
+		}
+
+		BitSet typeNodes = getNodesOfType(TypeDeclaration.class);
+		for (int node = typeNodes.nextSetBit(0); node >= 0; node = typeNodes.nextSetBit(node + 1)) {
+			int parent = m_astParents[node];
+			if (isNodeOfType(parent, CompilationUnit.class)
+					&& Objects.equals(lastSegment((String) m_properties.get(parent).get(ATTR_CLASS_NAME)), m_properties.get(node).get(ATTR_SIMPLE_NAME))) {
+				m_guarantees.add(parent, node);
+				unitToTypeDefinitionGuarantees++;
+			}
+		}
+
+		System.out.println("Added " + unitToPackageGuarantees + " unit to package declaration guarantees.");
+		System.out.println("Added " + internalPackageGuarantees + " internal package declaration guarantees.");
+		System.out.println("Added " + unitToTypeDefinitionGuarantees + " unit to type definition guarantees.");
+	}
+
+	@Override
+	public void close() {
+	}
+
+	private static String lastSegment(String name) {
+		if (name == null) {
+			return null;
+		}
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
+	private void addDependency(int node, int target) {
+		m_dependsOn.add(node, target);
+		m_dependents.add(target, node);
+	}
+
+	private boolean dependsOnFreeNode(int node) {
+		for (int i = 0; i < m_dependsOn.size(node); i++) {
+			if (m_free.get(m_dependsOn.get(node, i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Set<Long> activate(BitSet nodes) {
+		m_free.andNot(nodes);
+		m_active.or(nodes);
+		return toIdSet(nodes);
+	}
+
+	private void delete(BitSet nodes) {
+		m_nodes.andNot(nodes);
+		m_free.andNot(nodes);
+		m_active.andNot(nodes);
+		m_fixed.andNot(nodes);
+	}
+
+	private boolean isNodeOfType(int node, Class<? extends ASTNode> nodeType) {
+		return node >= 0 && m_nodes.get(node) && nodeType.getSimpleName().equals(m_properties.get(node).get(ATTR_NODE_TYPE));
+	}
+
+	private BitSet getNodesOfType(Class<? extends ASTNode> nodeType) {
+		BitSet nodes = new BitSet();
+		for (int node = m_nodes.nextSetBit(0); node >= 0; node = m_nodes.nextSetBit(node + 1)) {
+			if (isNodeOfType(node, nodeType)) {
+				nodes.set(node);
+			}
+		}
+		return nodes;
+	}
+
+	// all existing nodes that are reachable from the start nodes over at least one edge
+	private BitSet reachable(BitSet startNodes, AdjacencyList edges) {
+		BitSet reachedNodes = new BitSet();
+		int[] stack = new int[Math.max(16, startNodes.cardinality())];
+		int stackSize = 0;
+		for (int node = startNodes.nextSetBit(0); node >= 0; node = startNodes.nextSetBit(node + 1)) {
+			stack[stackSize++] = node;
+		}
+		while (stackSize > 0) {
+			int node = stack[--stackSize];
+			for (int i = 0; i < edges.size(node); i++) {
+				int next = edges.get(node, i);
+				if (m_nodes.get(next) && !reachedNodes.get(next)) {
+					reachedNodes.set(next);
+					if (stackSize == stack.length) {
+						stack = Arrays.copyOf(stack, 2 * stack.length);
+					}
+					stack[stackSize++] = next;
+				}
+			}
+		}
+		return reachedNodes;
+	}
+
+	// the existing nodes with the given ids
+	private BitSet toBitSet(Set<Long> nodeIds) {
+		BitSet nodes = new BitSet();
+		for (long nodeId : nodeIds) {
+			if (nodeId >= 0 && nodeId < m_properties.size() && m_nodes.get((int) nodeId)) {
+				nodes.set((int) nodeId);
+			}
+		}
+		return nodes;
+	}
+
+	private static Set<Long> toIdSet(BitSet nodes) {
+		Set<Long> nodeIds = new HashSet<>();
+		for (int node = nodes.nextSetBit(0); node >= 0; node = nodes.nextSetBit(node + 1)) {
+			nodeIds.add((long) node);
+		}
+		return nodeIds;
+	}
+
+	// growable int arrays with the targets of the edges of every node
+	private static class AdjacencyList {
+
+		private int[][] m_targets = new int[0][];
+		private int[] m_sizes = new int[0];
+
+		private void add(int node, int target) {
+			if (node >= m_targets.length) {
+				int capacity = Math.max(Math.max(16, node + 1), 2 * m_targets.length);
+				m_targets = Arrays.copyOf(m_targets, capacity);
+				m_sizes = Arrays.copyOf(m_sizes, capacity);
+			}
+			int[] targets = m_targets[node];
+			if (targets == null) {
+				targets = new int[2];
+				m_targets[node] = targets;
+			} else if (m_sizes[node] == targets.length) {
+				targets = Arrays.copyOf(targets, 2 * targets.length);
+				m_targets[node] = targets;
+			}
+			targets[m_sizes[node]++] = target;
+		}
+
+		private int size(int node) {
+			return node < m_sizes.length ? m_sizes[node] : 0;
+		}
+
+		private int get(int node, int index) {
+			return m_targets[node][index];
+		}
+	}
+}
@@ -21,6 +21,7 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -31,7 +32,8 @@ import java.util.stream.Stream;
  */
 public class HDDTestExecutor extends ATestExecutor {
 
-	private final Set<ICodeFragment> m_fixedFragments = new HashSet<>();
+	// concurrent HDDrec runs add fixed fragments while other runs render their configurations
+	private final Set<ICodeFragment> m_fixedFragments = ConcurrentHashMap.newKeySet();
 
 	public HDDTestExecutor(TestExecutorOptions options) {
 		super(options);
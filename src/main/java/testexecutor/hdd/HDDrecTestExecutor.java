@@ -3,20 +3,28 @@ package testexecutor.hdd;
 import fragment.HDDCodeFragment;
 import fragment.ICodeFragment;
 import fragment.IHierarchicalCodeFragment;
+import testexecutor.ITestExecutor;
 import testexecutor.TestExecutorOptions;
 import utility.CollectionsUtility;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
 
 /*
     An executor that extracts the hierarchical code fragments from the AST of the source code
  */
 public class HDDrecTestExecutor extends HDDTestExecutor {
 
-	protected Queue<IHierarchicalCodeFragment> queue = new ArrayDeque<>();
+	protected Queue<IHierarchicalCodeFragment> queue = new ConcurrentLinkedQueue<>();
+	// the fragment whose children are reduced by a concurrent DDmin run, by its children
+	private final Map<ICodeFragment, IHierarchicalCodeFragment> m_activeParents = new ConcurrentHashMap<>();
+	// the active fragment of the configuration rendered by the current thread
+	private final ThreadLocal<IHierarchicalCodeFragment> m_ownParent = new ThreadLocal<>();
 
 	public HDDrecTestExecutor(TestExecutorOptions options) {
 		super(options);
@@ -39,8 +47,97 @@ public class HDDrecTestExecutor extends HDDTestExecutor {
 		queue.add(root);
 	}
 
+	// the children of an active fragment are kept by the configurations of all other concurrent DDmin runs
+	public void activate(IHierarchicalCodeFragment fragment) {
+		fragment.getChildren().forEach(child -> m_activeParents.put(child, fragment));
+	}
+
+	public void deactivate(IHierarchicalCodeFragment fragment) {
+		fragment.getChildren().forEach(m_activeParents::remove);
+	}
+
+	// the children of all active fragments
+	public List<ICodeFragment> getActiveFragments() {
+		return new ArrayList<>(m_activeParents.keySet());
+	}
+
+	// an executor testing configurations of the children of the given active fragment
+	public ITestExecutor forSubtree(IHierarchicalCodeFragment parent) {
+		return new SubtreeTestExecutor(parent);
+	}
+
 	@Override
 	protected Map<String, String> mapFragmentsToFiles(List<ICodeFragment> fragments) {
-		return super.mapFragmentsToFiles(CollectionsUtility.union(fragments, queue));
+		List<ICodeFragment> configuration = CollectionsUtility.union(fragments, queue);
+		if (m_activeParents.isEmpty()) {
+			return super.mapFragmentsToFiles(configuration);
+		}
+		// subtrees reduced by other DDmin runs are treated like queued fragments
+		IHierarchicalCodeFragment ownParent = m_ownParent.get();
+		List<ICodeFragment> otherActiveFragments = m_activeParents.entrySet().stream()
+				.filter(e -> e.getValue() != ownParent)
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+		return super.mapFragmentsToFiles(CollectionsUtility.union(configuration, otherActiveFragments));
+	}
+
+	private class SubtreeTestExecutor implements ITestExecutor {
+
+		private final IHierarchicalCodeFragment m_parent;
+
+		private SubtreeTestExecutor(IHierarchicalCodeFragment parent) {
+			m_parent = parent;
+		}
+
+		@Override
+		public ETestResult test(List<ICodeFragment> fragments) {
+			// the configuration is rendered by the calling thread
+			m_ownParent.set(m_parent);
+			try {
+				return HDDrecTestExecutor.this.test(fragments);
+			} finally {
+				m_ownParent.remove();
+			}
+		}
+
+		@Override
+		public void initialize() {
+			HDDrecTestExecutor.this.initialize();
+		}
+
+		@Override
+		public List<ICodeFragment> extractFragments() {
+			return HDDrecTestExecutor.this.extractFragments();
+		}
+
+		@Override
+		public void recreateCode(List<ICodeFragment> fragments) {
+			HDDrecTestExecutor.this.recreateCode(fragments);
+		}
+
+		@Override
+		public void calibrateTimeout() {
+			HDDrecTestExecutor.this.calibrateTimeout();
+		}
+
+		@Override
+		public void changeSourceToOutputFolder() {
+			HDDrecTestExecutor.this.changeSourceToOutputFolder();
+		}
+
+		@Override
+		public String getStatistics() {
+			return HDDrecTestExecutor.this.getStatistics();
+		}
+
+		@Override
+		public void formatOutputFolder() {
+			HDDrecTestExecutor.this.formatOutputFolder();
+		}
+
+		@Override
+		public void trackDDminCompilerStats() {
+			HDDrecTestExecutor.this.trackDDminCompilerStats();
+		}
 	}
 }
@@ -36,8 +36,9 @@ public final class CollectionsUtility {
         Return all elements of c1 that are not in c2.
      */
 	public static <T> List<T> listMinus(List<T> c1, List<T> c2) {
+		Set<T> excluded = new HashSet<>(c2);
 		return c1.stream()
-				.filter(e -> !c2.contains(e))
+				.filter(e -> !excluded.contains(e))
 				.collect(Collectors.toList());
 	}
 
@@ -64,9 +65,8 @@ public final class CollectionsUtility {
 	}
 
 	public static List<ICodeFragment> union(Collection<? extends ICodeFragment> c1, Collection<? extends ICodeFragment> c2) {
-		List<ICodeFragment> list = new ArrayList<>(c1.size() + c2.size());
-		list.addAll(c1);
-		c2.stream().filter(e -> !list.contains(e)).forEach(list::add);
-		return list;
+		Set<ICodeFragment> set = new LinkedHashSet<>(c1);
+		set.addAll(c2);
+		return new ArrayList<>(set);
 	}
 }
@@ -8,6 +8,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -38,18 +40,31 @@ public class FileUtility {
 	}
 
 	public static void addJavaFilesToCompiler(InMemoryJavaCompiler compiler, Path folderPath) throws IOException {
+		for (Map.Entry<String, String> source : readJavaFiles(folderPath).entrySet()) {
+			try {
+				compiler.addSource(source.getKey(), source.getValue());
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	// returns the code of all java files in the folder by class name
+	public static Map<String, String> readJavaFiles(Path folderPath) throws IOException {
+		Map<String, String> sources = new HashMap<>();
 		try (Stream<Path> walk = Files.walk(folderPath)) {
 			walk.filter(path -> Files.isRegularFile(path) && "java".equals(FilenameUtils.getExtension(path.toString())))
 					.forEach(path -> {
 						try {
 							String className = path.toString().substring(folderPath.toString().length() + 1, path.toString().length() - 5)
 									.replaceAll(Pattern.quote(File.separator), ".");
-							compiler.addSource(className, new String(Files.readAllBytes(path)));
-						} catch (Exception e) {
+							sources.put(className, new String(Files.readAllBytes(path)));
+						} catch (IOException e) {
 							throw new RuntimeException(e);
 						}
 					});
 		}
+		return sources;
 	}
 
 	public static String fileNameToClassName(String fileName) {
@@ -1,14 +1,13 @@
 package utility;
 
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.core.dom.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.*;
 
 /**
  * Helper to parse Java code.
@@ -58,6 +57,27 @@ public class JavaParserUtility {
 		return (CompilationUnit) parser.createAST(null);
 	}
 
+	/**
+	 * Checks a single Java source file for syntax errors. No bindings are resolved.
+	 *
+	 * @param source The Java source file.
+	 * @return <code>true</code> if the parser reports a syntax error.
+	 */
+	public static boolean hasSyntaxErrors(String source) {
+		Map<String, String> options = new HashMap<>();
+		JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
+		ASTParser parser = ASTParser.newParser(JAVA_LANGUAGE_SPECIFICATION);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setCompilerOptions(options);
+		parser.setSource(source.toCharArray());
+		CompilationUnit unit = (CompilationUnit) parser.createAST(null);
+		for (IProblem problem : unit.getProblems()) {
+			if (problem.isError() && (problem.getID() & IProblem.Syntax) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
 
 	/**
 	 * Maps the Java AST nodes to tokens in the code.